@@ -19,6 +19,8 @@
  */
 package net.draycia.carbon.api.users;
 
+import java.util.Collection;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import org.checkerframework.checker.nullness.qual.NonNull;
@@ -45,4 +47,16 @@ public interface UserManager<C extends CarbonPlayer> {
      */
     CompletableFuture<C> user(UUID uuid);
 
+    /**
+     * Gets the {@link CarbonPlayer CarbonPlayers} for the provided player {@link UUID UUIDs}, whether they are online or not.
+     *
+     * <p>Players that are not already loaded are loaded together, which is considerably cheaper than
+     * calling {@link #user(UUID)} for each of them. The same caching notes as {@link #user(UUID)} apply.</p>
+     *
+     * @param uuids the players' ids
+     * @return the players, keyed by id
+     * @since 2.1.0
+     */
+    CompletableFuture<Map<UUID, C>> users(Collection<UUID> uuids);
+
 }
@@ -21,6 +21,7 @@ val platformExtension = extensions.create<CarbonPlatformExtension>("carbonPlatfo
 dependencies {
   runtimeDownload(libs.postgresql)
   runtimeDownload(libs.mariadb)
+  runtimeDownload(libs.h2)
   runtimeDownload(libs.zstdjni)
   runtimeDownload(libs.jdbiCore)
   runtimeDownload(libs.jdbiObject)
@@ -38,6 +38,7 @@ fun Task.standardRuntimeRelocations() {
   relocateDependency("io.nats")
   relocateDependency("net.i2p.crypto")
   relocateDependency("org.apache.commons.pool2")
+  relocateDependency("org.h2")
   relocateDependency("org.jdbi")
   relocateDependency("org.mariadb.jdbc")
   relocateDependency("org.postgresql")
@@ -62,4 +62,20 @@ dependencies {
 
   // Plugins
   compileOnly(libs.miniplaceholders)
+
+  // Tests, with the libraries platforms provide at runtime
+  testImplementation(platform(libs.junitBom))
+  testImplementation(libs.junitJupiter)
+  testRuntimeOnly(libs.junitPlatformLauncher)
+  testImplementation(libs.adventureApi)
+  testImplementation(libs.adventureTextSerializerGson)
+  testImplementation(libs.gson)
+  testImplementation(libs.netty)
+  testImplementation(libs.guava)
+  testImplementation(libs.log4jApi)
+  testCompileOnly(libs.checkerQual)
+}
+
+tasks.test {
+  useJUnitPlatform()
 }
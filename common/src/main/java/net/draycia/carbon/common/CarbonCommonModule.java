@@ -35,6 +35,8 @@ import net.draycia.carbon.common.channels.CarbonChannelRegistry;
 import net.draycia.carbon.common.command.ArgumentFactory;
 import net.draycia.carbon.common.command.commands.ExecutionCoordinatorHolder;
 import net.draycia.carbon.common.config.ConfigFactory;
+import net.draycia.carbon.common.config.DatabaseSettings;
+import net.draycia.carbon.common.config.PrimaryConfig;
 import net.draycia.carbon.common.event.CarbonEventHandlerImpl;
 import net.draycia.carbon.common.listeners.DeafenHandler;
 import net.draycia.carbon.common.listeners.HyperlinkHandler;
@@ -43,6 +45,7 @@ import net.draycia.carbon.common.listeners.ItemLinkHandler;
 import net.draycia.carbon.common.listeners.Listener;
 import net.draycia.carbon.common.listeners.MessagePacketHandler;
 import net.draycia.carbon.common.listeners.MuteHandler;
+import net.draycia.carbon.common.listeners.PermissionChangeListener;
 import net.draycia.carbon.common.listeners.PingHandler;
 import net.draycia.carbon.common.listeners.RadiusListener;
 import net.draycia.carbon.common.messages.CarbonMessageSender;
@@ -57,8 +60,10 @@ import net.draycia.carbon.common.messages.placeholders.StringPlaceholderResolver
 import net.draycia.carbon.common.messages.placeholders.UUIDPlaceholderResolver;
 import net.draycia.carbon.common.messaging.packets.PacketFactory;
 import net.draycia.carbon.common.users.Backing;
+import net.draycia.carbon.common.users.CachingUserManager;
 import net.draycia.carbon.common.users.CarbonPlayerCommon;
 import net.draycia.carbon.common.users.UserManagerInternal;
+import net.draycia.carbon.common.users.db.h2.H2UserManager;
 import net.draycia.carbon.common.users.db.mysql.MySQLUserManager;
 import net.draycia.carbon.common.users.db.postgresql.PostgreSQLUserManager;
 import net.draycia.carbon.common.users.json.JSONUserManager;
@@ -80,13 +85,45 @@ public final class CarbonCommonModule extends AbstractModule {
     @Backing
     @Singleton
     public UserManagerInternal<CarbonPlayerCommon> userManager(final ConfigFactory configFactory, final Injector injector) {
-        return switch (Objects.requireNonNull(configFactory.primaryConfig()).storageType()) {
+        return createUserManager(Objects.requireNonNull(configFactory.primaryConfig()).storageType(), injector);
+    }
+
+    /**
+     * Create a new user manager for the given storage type.
+     *
+     * @param storageType storage type
+     * @param injector    injector
+     * @return new user manager
+     */
+    public static CachingUserManager createUserManager(final PrimaryConfig.StorageType storageType, final Injector injector) {
+        return switch (storageType) {
+            case H2 -> injector.getInstance(H2UserManager.Factory.class).create();
             case MYSQL -> injector.getInstance(MySQLUserManager.Factory.class).create();
             case PSQL -> injector.getInstance(PostgreSQLUserManager.Factory.class).create();
             default -> injector.getInstance(JSONUserManager.class);
         };
     }
 
+    /**
+     * Create a new user manager for the given storage type, connecting remote databases with the given settings.
+     *
+     * @param storageType      storage type
+     * @param injector         injector
+     * @param databaseSettings connection settings for MYSQL and PSQL
+     * @return new user manager
+     */
+    public static CachingUserManager createUserManager(
+        final PrimaryConfig.StorageType storageType,
+        final Injector injector,
+        final DatabaseSettings databaseSettings
+    ) {
+        return switch (storageType) {
+            case MYSQL -> injector.getInstance(MySQLUserManager.Factory.class).create(databaseSettings);
+            case PSQL -> injector.getInstance(PostgreSQLUserManager.Factory.class).create(databaseSettings);
+            default -> createUserManager(storageType, injector);
+        };
+    }
+
     @Provides
     @PeriodicTasks
     @Singleton
@@ -141,6 +178,7 @@ public final class CarbonCommonModule extends AbstractModule {
         listeners.addBinding().to(ItemLinkHandler.class);
         listeners.addBinding().to(MessagePacketHandler.class);
         listeners.addBinding().to(MuteHandler.class);
+        listeners.addBinding().to(PermissionChangeListener.class);
         listeners.addBinding().to(PingHandler.class);
         listeners.addBinding().to(RadiusListener.class);
     }
@@ -21,7 +21,6 @@ package net.draycia.carbon.common.channels;
 
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
@@ -46,14 +45,17 @@ public final class BasicChatChannel implements ChatChannel {
 
     private final CarbonMessages service;
     private final CarbonChat carbonChat;
+    private final ChannelMembership membership;
 
     @Inject
     private BasicChatChannel(
         final CarbonMessages service,
-        final CarbonChat carbonChat
+        final CarbonChat carbonChat,
+        final ChannelMembership membership
     ) {
         this.carbonChat = carbonChat;
         this.service = service;
+        this.membership = membership;
     }
 
     @Override
@@ -119,18 +121,7 @@ public final class BasicChatChannel implements ChatChannel {
 
     @Override
     public List<Audience> recipients(final CarbonPlayer sender) {
-        final List<Audience> recipients = new ArrayList<>();
-
-        for (final CarbonPlayer player : this.carbonChat.server().players()) {
-            if (this.hearingPermitted(player).permitted()) {
-                recipients.add(player);
-            }
-        }
-
-        // console too!
-        recipients.add(this.carbonChat.server().console());
-
-        return recipients;
+        return this.membership.recipients(this, this.carbonChat.server());
     }
 
     @Override
@@ -53,6 +53,7 @@ import net.draycia.carbon.common.event.events.CarbonReloadEvent;
 import net.draycia.carbon.common.event.events.ChannelRegisterEventImpl;
 import net.draycia.carbon.common.listeners.ChatListenerInternal;
 import net.draycia.carbon.common.messages.CarbonMessages;
+import net.draycia.carbon.common.users.MessageTagPermissions;
 import net.draycia.carbon.common.util.Exceptions;
 import net.draycia.carbon.common.util.FileUtil;
 import net.kyori.adventure.audience.Audience;
@@ -105,9 +106,10 @@ public class CarbonChannelRegistry extends ChatListenerInternal implements Chann
         final Logger logger,
         final ConfigFactory configFactory,
         final CarbonMessages carbonMessages,
-        final CarbonEventHandler events
+        final CarbonEventHandler events,
+        final MessageTagPermissions messageTagPermissions
     ) {
-        super(events, carbonMessages, configFactory);
+        super(events, carbonMessages, configFactory, messageTagPermissions);
         this.configChannelDir = dataDirectory.resolve("channels");
         this.injector = injector;
         this.logger = logger;
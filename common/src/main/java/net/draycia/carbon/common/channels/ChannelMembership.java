@@ -0,0 +1,213 @@
+/*
+ * CarbonChat
+ *
+ * Copyright (c) 2023 Josua Parks (Vicarious)
+ *                    Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.draycia.carbon.common.channels;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.inject.Singleton;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import net.draycia.carbon.api.CarbonServer;
+import net.draycia.carbon.api.channels.ChatChannel;
+import net.draycia.carbon.api.users.CarbonPlayer;
+import net.kyori.adventure.audience.Audience;
+import net.kyori.adventure.key.Key;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.framework.qual.DefaultQualifier;
+
+/**
+ * Keeps the online players that can hear each channel, so recipients are a snapshot instead of a
+ * check of every online player on every message.
+ *
+ * <p>Members are updated when players join or quit, join or leave a channel, and when LuckPerms
+ * recalculates their permissions. A channel's members are collected from the online players when
+ * it is first used, and again whenever the channel is replaced by a reload.</p>
+ *
+ * <p>Without LuckPerms there is no event for permission changes, so channel permissions are only
+ * trusted for {@link #UNOBSERVED_PERMISSION_LIFETIME}, and members are collected again once they
+ * are older than that.</p>
+ */
+@Singleton
+@DefaultQualifier(NonNull.class)
+public final class ChannelMembership {
+
+    private static final Duration PERMISSION_LIFETIME = Duration.ofMinutes(1);
+    private static final Duration UNOBSERVED_PERMISSION_LIFETIME = Duration.ofSeconds(5);
+
+    private final Cache<UUID, Permissions> permissions = Caffeine.newBuilder()
+        .expireAfterWrite(PERMISSION_LIFETIME)
+        .build();
+    private final Map<UUID, CarbonPlayer> online = new ConcurrentHashMap<>();
+    private final Map<Key, Members> members = new ConcurrentHashMap<>();
+    private volatile boolean permissionEvents = false;
+
+    /**
+     * Get the online players that can hear a channel, and the console.
+     *
+     * @param channel channel
+     * @param server  server
+     * @return recipients
+     */
+    public List<Audience> recipients(final ChatChannel channel, final CarbonServer server) {
+        @Nullable Members members = this.members.get(channel.key());
+
+        if (members == null || members.channel() != channel || this.stale(members.collected())) {
+            members = this.collect(channel, server);
+        }
+
+        final Collection<CarbonPlayer> players = members.players().values();
+        final List<Audience> recipients = new ArrayList<>(players.size() + 1);
+        recipients.addAll(players);
+
+        // console too!
+        recipients.add(server.console());
+
+        return recipients;
+    }
+
+    private synchronized Members collect(final ChatChannel channel, final CarbonServer server) {
+        final @Nullable Members current = this.members.get(channel.key());
+        if (current != null && current.channel() == channel && !this.stale(current.collected())) {
+            return current;
+        }
+
+        // Players online before we saw them join, such as after a plugin reload
+        for (final CarbonPlayer player : server.players()) {
+            this.online.putIfAbsent(player.uuid(), player);
+        }
+
+        final Members members = new Members(channel, new ConcurrentHashMap<>(), System.nanoTime());
+        for (final CarbonPlayer player : this.online.values()) {
+            members.update(player);
+        }
+        this.members.put(channel.key(), members);
+
+        return members;
+    }
+
+    private boolean stale(final long checked) {
+        return !this.permissionEvents && System.nanoTime() - checked >= UNOBSERVED_PERMISSION_LIFETIME.toNanos();
+    }
+
+    /**
+     * Check a channel permission, using the remembered result if there is one.
+     *
+     * @param player     player
+     * @param permission permission
+     * @return whether the player has the permission
+     */
+    public boolean hasPermission(final CarbonPlayer player, final String permission) {
+        @Nullable Permissions permissions = this.permissions.getIfPresent(player.uuid());
+
+        if (permissions == null || this.stale(permissions.checked())) {
+            permissions = new Permissions(new ConcurrentHashMap<>(), System.nanoTime());
+            this.permissions.put(player.uuid(), permissions);
+        }
+
+        return permissions.results().computeIfAbsent(permission, player::hasPermission);
+    }
+
+    /**
+     * Add a player that came online to the channels they can hear.
+     *
+     * @param player the player
+     */
+    public synchronized void joined(final CarbonPlayer player) {
+        // Loading may finish after the player already quit
+        if (!player.online()) {
+            return;
+        }
+
+        this.online.put(player.uuid(), player);
+        for (final Members members : this.members.values()) {
+            members.update(player);
+        }
+    }
+
+    /**
+     * Remove a player that went offline from every channel.
+     *
+     * @param player the player's id
+     */
+    public synchronized void quit(final UUID player) {
+        this.online.remove(player);
+        this.permissions.invalidate(player);
+        for (final Members members : this.members.values()) {
+            members.players().remove(player);
+        }
+    }
+
+    /**
+     * Check again which channels a player can hear, for example because they joined or left one.
+     *
+     * @param player the player's id
+     */
+    public synchronized void refresh(final UUID player) {
+        final @Nullable CarbonPlayer onlinePlayer = this.online.get(player);
+        if (onlinePlayer == null) {
+            return;
+        }
+
+        for (final Members members : this.members.values()) {
+            members.update(onlinePlayer);
+        }
+    }
+
+    /**
+     * Forget the remembered permissions of a player and check their channels again,
+     * for example because their permissions changed.
+     *
+     * @param player the player's id
+     */
+    public void invalidate(final UUID player) {
+        this.permissions.invalidate(player);
+        this.refresh(player);
+    }
+
+    /**
+     * Called once permission changes are reported through {@link #invalidate(UUID)},
+     * so remembered permissions and members can be kept until then.
+     */
+    public void permissionEventsAvailable() {
+        this.permissionEvents = true;
+    }
+
+    private record Permissions(Map<String, Boolean> results, long checked) {
+    }
+
+    private record Members(ChatChannel channel, Map<UUID, CarbonPlayer> players, long collected) {
+
+        void update(final CarbonPlayer player) {
+            if (player.online() && this.channel.hearingPermitted(player).permitted()) {
+                this.players.put(player.uuid(), player);
+            } else {
+                this.players.remove(player.uuid());
+            }
+        }
+
+    }
+
+}
@@ -19,11 +19,14 @@
  */
 package net.draycia.carbon.common.channels;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.google.inject.Inject;
 import io.leangen.geantyref.TypeToken;
-import java.util.ArrayList;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
@@ -36,6 +39,7 @@ import net.draycia.carbon.common.channels.messages.ConfigChannelMessageSource;
 import net.draycia.carbon.common.channels.messages.ConfigChannelMessages;
 import net.draycia.carbon.common.messages.SourcedMessageSender;
 import net.draycia.carbon.common.messages.SourcedReceiverResolver;
+import net.draycia.carbon.common.messages.StandardPlaceholderResolverStrategyButDifferent;
 import net.draycia.carbon.common.messages.placeholders.BooleanPlaceholderResolver;
 import net.draycia.carbon.common.messages.placeholders.ComponentPlaceholderResolver;
 import net.draycia.carbon.common.messages.placeholders.KeyPlaceholderResolver;
@@ -46,8 +50,6 @@ import net.kyori.adventure.key.Key;
 import net.kyori.adventure.text.Component;
 import net.kyori.moonshine.Moonshine;
 import net.kyori.moonshine.exception.scan.UnscannableMethodException;
-import net.kyori.moonshine.strategy.StandardPlaceholderResolverStrategy;
-import net.kyori.moonshine.strategy.supertype.StandardSupertypeThenInterfaceSupertypeStrategy;
 import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
@@ -65,7 +67,13 @@ import static net.kyori.adventure.text.Component.text;
 @DefaultQualifier(NonNull.class)
 public final class ConfigChatChannel implements ChatChannel {
 
+    private static final String RELATIONAL_PLACEHOLDER = "rel_";
+    private static final int RENDER_CACHE_SIZE = 512;
+    // Short, as sender placeholders resolved by the renderer may change between messages
+    private static final Duration RENDER_CACHE_LIFETIME = Duration.ofSeconds(1);
+
     private transient @MonotonicNonNull @Inject CarbonChat carbonChat;
+    private transient @MonotonicNonNull @Inject ChannelMembership membership;
 
     @Comment("""
         The channel's key, used to track the channel.
@@ -98,6 +106,12 @@ public final class ConfigChatChannel implements ChatChannel {
 
     private transient @Nullable ConfigChannelMessages carbonMessages = null;
 
+    // Renders shared by recipients that would see the same output, such as all players with one locale
+    private final transient Cache<RenderKey, Component> renderCache = Caffeine.newBuilder()
+        .maximumSize(RENDER_CACHE_SIZE)
+        .expireAfterWrite(RENDER_CACHE_LIFETIME)
+        .build();
+
     @Comment("""
         The distance players must be within to see each other's messages.
         A value of '0' requires that both players are in the same world.
@@ -142,12 +156,45 @@ public final class ConfigChatChannel implements ChatChannel {
         final Audience recipient,
         final Component message,
         final Component originalMessage
+    ) {
+        final Component senderName = Objects.requireNonNull(CarbonPlayer.renderName(sender));
+
+        if (!(recipient instanceof CarbonPlayer recipientPlayer)) {
+            return this.renderFormat(sender, recipient, senderName, message);
+        }
+
+        final SourcedAudience sourced = new SourcedAudience(sender, recipient);
+        final String format = this.messageSource.messageOf(sourced, "");
+
+        // Relational placeholders depend on the recipient, so those formats can't be shared
+        if (format.contains(RELATIONAL_PLACEHOLDER)) {
+            return this.renderFormat(sender, recipient, senderName, message);
+        }
+
+        // Everything else that goes into the format is either the sender's, or captured here
+        final RenderKey key = new RenderKey(
+            sender.uuid(),
+            senderName,
+            format,
+            message,
+            recipientPlayer.locale(),
+            recipientPlayer.online()
+        );
+
+        return this.renderCache.get(key, $ -> this.renderFormat(sender, recipient, senderName, message));
+    }
+
+    private Component renderFormat(
+        final CarbonPlayer sender,
+        final Audience recipient,
+        final Component senderName,
+        final Component message
     ) {
         return this.carbonMessages().chatFormat(
             new SourcedAudience(sender, recipient),
             sender.uuid(),
             this.key(),
-            Objects.requireNonNull(CarbonPlayer.renderName(sender)),
+            senderName,
             sender.username(),
             message
         );
@@ -161,23 +208,12 @@ public final class ConfigChatChannel implements ChatChannel {
 
     @Override
     public ChannelPermissionResult hearingPermitted(final CarbonPlayer player) {
-        return ChannelPermissionResult.allowedIf(empty(), () -> player.hasPermission(this.permission() + ".see") && !player.leftChannels().contains(this.key));
+        return ChannelPermissionResult.allowedIf(empty(), () -> this.membership.hasPermission(player, this.permission() + ".see") && !player.leftChannels().contains(this.key));
     }
 
     @Override
     public List<Audience> recipients(final CarbonPlayer sender) {
-        final List<Audience> recipients = new ArrayList<>();
-
-        for (final CarbonPlayer player : this.carbonChat.server().players()) {
-            if (this.hearingPermitted(player).permitted()) {
-                recipients.add(player);
-            }
-        }
-
-        // console too!
-        recipients.add(this.carbonChat.server().console());
-
-        return recipients;
+        return this.membership.recipients(this, this.carbonChat.server());
     }
 
     @Override
@@ -215,7 +251,7 @@ public final class ConfigChatChannel implements ChatChannel {
                 .sourced(this.messageSource)
                 .rendered(((CarbonChatInternal<?>) this.carbonChat).messageRenderer())
                 .sent(carbonMessageSender)
-                .resolvingWithStrategy(new StandardPlaceholderResolverStrategy<>(new StandardSupertypeThenInterfaceSupertypeStrategy(false)))
+                .resolvingWithStrategy(new StandardPlaceholderResolverStrategyButDifferent<>())
                 .weightedPlaceholderResolver(Component.class, componentPlaceholderResolver, 0)
                 .weightedPlaceholderResolver(UUID.class, uuidPlaceholderResolver, 0)
                 .weightedPlaceholderResolver(String.class, stringPlaceholderResolver, 0)
@@ -286,4 +322,14 @@ public final class ConfigChatChannel implements ChatChannel {
         return Objects.hash(this.commandName(), this.quickPrefix(), this.permission(), this.radius(), this.key());
     }
 
+    private record RenderKey(
+        UUID sender,
+        Component senderName,
+        String format,
+        Component message,
+        @Nullable Locale locale,
+        boolean online
+    ) {
+    }
+
 }
@@ -19,9 +19,13 @@
  */
 package net.draycia.carbon.common.channels.messages;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
+import java.util.UUID;
 import net.draycia.carbon.api.users.CarbonPlayer;
 import net.draycia.carbon.api.util.SourcedAudience;
 import net.draycia.carbon.common.util.DiscordRecipient;
@@ -74,6 +78,14 @@ public class ConfigChannelMessageSource implements IMessageSource<SourcedAudienc
     );
 
     private static final String FALLBACK_FORMAT = "<red><</red><username><red>></red> <message>";
+    private static final int PLAYER_FORMAT_CACHE_SIZE = 512;
+    // Short, so group changes are picked up, while one message only looks up the sender's groups once per locale
+    private static final Duration PLAYER_FORMAT_LIFETIME = Duration.ofSeconds(1);
+
+    private final transient Cache<PlayerFormatKey, String> playerFormats = Caffeine.newBuilder()
+        .maximumSize(PLAYER_FORMAT_CACHE_SIZE)
+        .expireAfterWrite(PLAYER_FORMAT_LIFETIME)
+        .build();
 
     // TODO: Remove DiscordRecipient and use key instead (Couldn't figure out how to do it)
     @Override
@@ -90,9 +102,14 @@ public class ConfigChannelMessageSource implements IMessageSource<SourcedAudienc
     private String forPlayer(final SourcedAudience sourcedAudience) {
         final var sender = (CarbonPlayer) sourcedAudience.sender();
         final var recipient = (CarbonPlayer) sourcedAudience.recipient();
+        final @Nullable Locale locale = recipient.locale();
+
+        return this.playerFormats.get(new PlayerFormatKey(sender.uuid(), locale), $ -> this.lookupFormat(sender, locale));
+    }
 
-        if (recipient.locale() != null) {
-            final var formats = this.locales.get(recipient.locale());
+    private String lookupFormat(final CarbonPlayer sender, final @Nullable Locale locale) {
+        if (locale != null) {
+            final var formats = this.locales.get(locale);
 
             if (formats != null) {
                 final @Nullable String format = formats.get(sender.primaryGroup());
@@ -132,4 +149,7 @@ public class ConfigChannelMessageSource implements IMessageSource<SourcedAudienc
         return Objects.requireNonNullElse(this.defaults.get("console"), FALLBACK_FORMAT);
     }
 
+    private record PlayerFormatKey(UUID sender, @Nullable Locale locale) {
+    }
+
 }
@@ -23,6 +23,7 @@ import cloud.commandframework.CommandManager;
 import cloud.commandframework.minecraft.extras.MinecraftExtrasMetaKeys;
 import cloud.commandframework.minecraft.extras.RichDescription;
 import com.google.inject.Inject;
+import com.google.inject.Provider;
 import java.util.ArrayList;
 import net.draycia.carbon.api.users.CarbonPlayer;
 import net.draycia.carbon.common.command.ArgumentFactory;
@@ -31,11 +32,20 @@ import net.draycia.carbon.common.command.CommandSettings;
 import net.draycia.carbon.common.command.Commander;
 import net.draycia.carbon.common.command.PlayerCommander;
 import net.draycia.carbon.common.messages.CarbonMessages;
+import net.draycia.carbon.common.messaging.MessagingManager;
+import net.draycia.carbon.common.messaging.PacketBatcher;
+import net.draycia.carbon.common.messaging.packets.PacketEncoding;
+import net.draycia.carbon.common.users.Backing;
+import net.draycia.carbon.common.users.CachingUserManager;
+import net.draycia.carbon.common.users.CarbonPlayerCommon;
+import net.draycia.carbon.common.users.UserLoadMetrics;
+import net.draycia.carbon.common.users.UserManagerInternal;
 import net.kyori.adventure.key.Key;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.JoinConfiguration;
 import net.kyori.adventure.text.format.NamedTextColor;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.framework.qual.DefaultQualifier;
 
 @DefaultQualifier(NonNull.class)
@@ -44,16 +54,25 @@ public class DebugCommand extends CarbonCommand {
     final CommandManager<Commander> commandManager;
     final CarbonMessages carbonMessages;
     private final ArgumentFactory argumentFactory;
+    private final UserManagerInternal<CarbonPlayerCommon> userManager;
+    private final UserLoadMetrics userLoadMetrics;
+    private final Provider<MessagingManager> messagingManager;
 
     @Inject
     public DebugCommand(
         final CommandManager<Commander> commandManager,
         final CarbonMessages carbonMessages,
-        final ArgumentFactory argumentFactory
+        final ArgumentFactory argumentFactory,
+        final @Backing UserManagerInternal<CarbonPlayerCommon> userManager,
+        final UserLoadMetrics userLoadMetrics,
+        final Provider<MessagingManager> messagingManager
     ) {
         this.commandManager = commandManager;
         this.carbonMessages = carbonMessages;
         this.argumentFactory = argumentFactory;
+        this.userManager = userManager;
+        this.userLoadMetrics = userLoadMetrics;
+        this.messagingManager = messagingManager;
     }
 
     @Override
@@ -107,6 +126,41 @@ public class DebugCommand extends CarbonCommand {
                         formattedGroupsList
                     )
                 );
+
+                if (this.userManager instanceof CachingUserManager cachingUserManager) {
+                    sender.sendMessage(
+                        Component.join(JoinConfiguration.noSeparators(),
+                            Component.text("User Storage: ", NamedTextColor.GOLD),
+                            Component.text(cachingUserManager.queueDepth() + " tasks queued, "
+                                + "%.1f".formatted(cachingUserManager.latencyMillis()) + "ms latency", NamedTextColor.GREEN))
+                    );
+                }
+
+                sender.sendMessage(
+                    Component.join(JoinConfiguration.noSeparators(),
+                        Component.text("Chat Waiting On Load: ", NamedTextColor.GOLD),
+                        Component.text(this.userLoadMetrics.blockedChatMessages() + " of " + this.userLoadMetrics.chatMessages()
+                            + " messages, " + "%.1f".formatted(this.userLoadMetrics.blockedMillis()) + "ms total", NamedTextColor.GREEN))
+                );
+
+                sender.sendMessage(
+                    Component.join(JoinConfiguration.noSeparators(),
+                        Component.text("Packet Compression: ", NamedTextColor.GOLD),
+                        Component.text(PacketEncoding.compressedPayloads() + " payloads, "
+                            + "%.0f%%".formatted(PacketEncoding.compressionRatio() * 100) + " of original size, "
+                            + "%.1f".formatted(PacketEncoding.compressionMillis()) + "ms compressing, "
+                            + "%.1f".formatted(PacketEncoding.decompressionMillis()) + "ms decompressing", NamedTextColor.GREEN))
+                );
+
+                final @Nullable PacketBatcher batcher = this.messagingManager.get().batcher();
+                if (batcher != null) {
+                    sender.sendMessage(
+                        Component.join(JoinConfiguration.noSeparators(),
+                            Component.text("Packet Batches: ", NamedTextColor.GOLD),
+                            Component.text(batcher.batchSizes().count() + " sent, size "
+                                + batcher.batchSizes().summary("") + ", waited " + batcher.queueMillis().summary("ms"), NamedTextColor.GREEN))
+                    );
+                }
             })
             .build();
 
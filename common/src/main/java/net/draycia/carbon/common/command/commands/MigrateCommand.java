@@ -0,0 +1,197 @@
+/*
+ * CarbonChat
+ *
+ * Copyright (c) 2023 Josua Parks (Vicarious)
+ *                    Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.draycia.carbon.common.command.commands;
+
+import cloud.commandframework.CommandManager;
+import cloud.commandframework.arguments.standard.EnumArgument;
+import cloud.commandframework.minecraft.extras.MinecraftExtrasMetaKeys;
+import cloud.commandframework.minecraft.extras.RichDescription;
+import com.google.inject.Inject;
+import com.google.inject.Injector;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import net.draycia.carbon.common.CarbonCommonModule;
+import net.draycia.carbon.common.DataDirectory;
+import net.draycia.carbon.common.command.CarbonCommand;
+import net.draycia.carbon.common.command.CommandSettings;
+import net.draycia.carbon.common.command.Commander;
+import net.draycia.carbon.common.config.ConfigFactory;
+import net.draycia.carbon.common.config.PrimaryConfig;
+import net.draycia.carbon.common.config.PrimaryConfig.StorageType;
+import net.draycia.carbon.common.messages.CarbonMessages;
+import net.draycia.carbon.common.users.Backing;
+import net.draycia.carbon.common.users.CachingUserManager;
+import net.draycia.carbon.common.users.CarbonPlayerCommon;
+import net.draycia.carbon.common.users.UserManagerInternal;
+import net.draycia.carbon.common.users.UserMigration;
+import net.draycia.carbon.common.util.ConcurrentUtil;
+import net.kyori.adventure.key.Key;
+import net.kyori.adventure.text.Component;
+import org.apache.logging.log4j.Logger;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.framework.qual.DefaultQualifier;
+
+@DefaultQualifier(NonNull.class)
+public class MigrateCommand extends CarbonCommand {
+
+    final CommandManager<Commander> commandManager;
+    final CarbonMessages carbonMessages;
+    private final Injector injector;
+    private final ConfigFactory configFactory;
+    private final UserManagerInternal<CarbonPlayerCommon> userManager;
+    private final Path dataDirectory;
+    private final Logger logger;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Inject
+    public MigrateCommand(
+        final CommandManager<Commander> commandManager,
+        final CarbonMessages carbonMessages,
+        final Injector injector,
+        final ConfigFactory configFactory,
+        final @Backing UserManagerInternal<CarbonPlayerCommon> userManager,
+        final @DataDirectory Path dataDirectory,
+        final Logger logger
+    ) {
+        this.commandManager = commandManager;
+        this.carbonMessages = carbonMessages;
+        this.injector = injector;
+        this.configFactory = configFactory;
+        this.userManager = userManager;
+        this.dataDirectory = dataDirectory;
+        this.logger = logger;
+    }
+
+    @Override
+    protected CommandSettings _commandSettings() {
+        return new CommandSettings("carbon");
+    }
+
+    @Override
+    public Key key() {
+        return Key.key("carbon", "migrate");
+    }
+
+    @Override
+    public void init() {
+        final var command = this.commandManager.commandBuilder(this.commandSettings().name(), this.commandSettings().aliases())
+            .literal("migrate")
+            .argument(EnumArgument.of(StorageType.class, "from"),
+                RichDescription.of(this.carbonMessages.commandMigrateArgumentFrom()))
+            .argument(EnumArgument.of(StorageType.class, "to"),
+                RichDescription.of(this.carbonMessages.commandMigrateArgumentTo()))
+            .permission("carbon.migrate")
+            .senderType(Commander.class)
+            .meta(MinecraftExtrasMetaKeys.DESCRIPTION, this.carbonMessages.commandMigrateDescription())
+            .handler(handler -> {
+                final Commander sender = handler.getSender();
+                final StorageType from = handler.get("from");
+                final StorageType to = handler.get("to");
+
+                if (from == to) {
+                    this.carbonMessages.migrationUnsupported(sender, from.name(), to.name());
+                    return;
+                }
+                if (!this.running.compareAndSet(false, true)) {
+                    this.carbonMessages.migrationAlreadyRunning(sender);
+                    return;
+                }
+
+                // Migrations can take minutes, so they get their own thread instead of holding a command thread
+                final ExecutorService executor = Executors.newSingleThreadExecutor(ConcurrentUtil.carbonThreadFactory(this.logger, "Migration"));
+                try {
+                    executor.execute(() -> {
+                        try {
+                            this.migrate(sender, from, to);
+                        } finally {
+                            this.running.set(false);
+                        }
+                    });
+                } catch (final RejectedExecutionException ex) {
+                    this.running.set(false);
+                    throw ex;
+                } finally {
+                    executor.shutdown();
+                }
+            })
+            .build();
+
+        this.commandManager.command(command);
+    }
+
+    private void migrate(final Commander sender, final StorageType from, final StorageType to) {
+        final Path checkpoint = this.dataDirectory.resolve(
+            "migration-%s-%s.checkpoint".formatted(from.name(), to.name()).toLowerCase(Locale.ROOT));
+        final long start = System.currentTimeMillis();
+        final List<CachingUserManager> created = new ArrayList<>();
+
+        try {
+            // Only one of two remote databases can use the database settings, the other uses the migration settings
+            final boolean bothRemote = isRemoteDatabase(from) && isRemoteDatabase(to);
+            final StorageType migrationSettingsType = to == Objects.requireNonNull(this.configFactory.primaryConfig()).storageType() ? from : to;
+            final CachingUserManager source = this.userManager(from, bothRemote && from == migrationSettingsType, created);
+            final CachingUserManager target = this.userManager(to, bothRemote && to == migrationSettingsType, created);
+
+            this.carbonMessages.migrationStarted(sender, from.name(), to.name());
+            final int migrated = new UserMigration(source, target, checkpoint, this.logger).run((done, total) ->
+                this.carbonMessages.migrationProgress(sender, String.valueOf(done), String.valueOf(total)));
+            final String seconds = "%.1f".formatted((System.currentTimeMillis() - start) / 1000.0);
+            this.carbonMessages.migrationCompleted(sender, String.valueOf(migrated), from.name(), to.name(), seconds);
+        } catch (final Exception ex) {
+            this.logger.error("Failed to migrate players from {} to {}", from, to, ex);
+            this.carbonMessages.migrationFailed(sender, Component.text(Objects.requireNonNullElse(ex.getMessage(), ex.getClass().getName())));
+        } finally {
+            // Only managers created for the migration are shut down, not the one in use
+            created.forEach(CachingUserManager::shutdown);
+        }
+    }
+
+    private CachingUserManager userManager(
+        final StorageType storageType,
+        final boolean migrationSettings,
+        final List<CachingUserManager> created
+    ) {
+        final PrimaryConfig config = Objects.requireNonNull(this.configFactory.primaryConfig());
+        if (migrationSettings) {
+            final CachingUserManager manager = CarbonCommonModule.createUserManager(storageType, this.injector, config.migrationDatabaseSettings());
+            created.add(manager);
+            return manager;
+        }
+        if (storageType == config.storageType()
+            && this.userManager instanceof CachingUserManager cachingUserManager) {
+            return cachingUserManager;
+        }
+        final CachingUserManager manager = CarbonCommonModule.createUserManager(storageType, this.injector);
+        created.add(manager);
+        return manager;
+    }
+
+    private static boolean isRemoteDatabase(final StorageType storageType) {
+        return storageType == StorageType.MYSQL || storageType == StorageType.PSQL;
+    }
+
+}
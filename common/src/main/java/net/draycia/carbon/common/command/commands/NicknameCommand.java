@@ -34,7 +34,7 @@ import net.draycia.carbon.common.command.Commander;
 import net.draycia.carbon.common.command.PlayerCommander;
 import net.draycia.carbon.common.config.ConfigFactory;
 import net.draycia.carbon.common.messages.CarbonMessages;
-import net.draycia.carbon.common.users.WrappedCarbonPlayer;
+import net.draycia.carbon.common.users.MessageTagPermissions;
 import net.draycia.carbon.common.util.CloudUtils;
 import net.kyori.adventure.audience.Audience;
 import net.kyori.adventure.key.Key;
@@ -49,18 +49,21 @@ public class NicknameCommand extends CarbonCommand {
     final CarbonMessages carbonMessages;
     private final ArgumentFactory argumentFactory;
     private final ConfigFactory config;
+    private final MessageTagPermissions messageTagPermissions;
 
     @Inject
     public NicknameCommand(
         final CommandManager<Commander> commandManager,
         final CarbonMessages carbonMessages,
         final ArgumentFactory argumentFactory,
-        final ConfigFactory config
+        final ConfigFactory config,
+        final MessageTagPermissions messageTagPermissions
     ) {
         this.commandManager = commandManager;
         this.carbonMessages = carbonMessages;
         this.argumentFactory = argumentFactory;
         this.config = config;
+        this.messageTagPermissions = messageTagPermissions;
     }
 
     @Override
@@ -126,7 +129,7 @@ public class NicknameCommand extends CarbonCommand {
 
     private void applyNickname(final Commander sender, final CarbonPlayer target, final String nick) {
         // Lazy since the sender might not have permission to set the nickname
-        final Supplier<Component> parsedNick = Suppliers.memoize(() -> parseNickname(sender, nick));
+        final Supplier<Component> parsedNick = Suppliers.memoize(() -> this.parseNickname(sender, nick));
         target.displayName(parsedNick.get());
 
         if (sender instanceof PlayerCommander playerCommander
@@ -156,9 +159,9 @@ public class NicknameCommand extends CarbonCommand {
         }
     }
 
-    private static Component parseNickname(final Commander sender, final String nick) {
+    private Component parseNickname(final Commander sender, final String nick) {
         // trim one level of quotes, to allow for nicknames which collide with command literals
-        return WrappedCarbonPlayer.parseMessageTags(trimQuotes(nick), sender::hasPermission);
+        return this.messageTagPermissions.parse(trimQuotes(nick), sender::hasPermission);
     }
 
     private static String trimQuotes(final String string) {
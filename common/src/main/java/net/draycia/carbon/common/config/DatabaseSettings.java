@@ -42,6 +42,12 @@ public class DatabaseSettings {
     @Comment("The connection password.")
     private String password = "password";
 
+    @Comment("""
+        How often, in seconds, changed player data is written to the database.
+        Changes made in between are combined, so each player is written at most once per interval.
+        """)
+    private int saveInterval = 10;
+
     public String url() {
         return this.url;
     }
@@ -54,4 +60,8 @@ public class DatabaseSettings {
         return this.password;
     }
 
+    public int saveInterval() {
+        return this.saveInterval;
+    }
+
 }
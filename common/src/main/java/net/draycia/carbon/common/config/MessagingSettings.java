@@ -51,6 +51,18 @@ public class MessagingSettings {
     @Comment("RabbitMQ and Redis password")
     private String password = "password"; // RabbitMQ and Redis only
 
+    @Comment("""
+        Chat components of at least this many bytes are compressed before being sent to the broker.
+        Compression is only used once every server on the network supports it. Set to 0 to disable.
+        """)
+    private int compressionThreshold = 256;
+
+    @Comment("The longest time in milliseconds a packet waits to be sent together with others.")
+    private int maxBatchDelay = 20;
+
+    @Comment("Queued packets are sent right away once this many are waiting.")
+    private int maxBatchSize = 64;
+
     public boolean enabled() {
         return this.enabled;
     }
@@ -83,4 +95,16 @@ public class MessagingSettings {
         return this.password;
     }
 
+    public int compressionThreshold() {
+        return this.compressionThreshold;
+    }
+
+    public int maxBatchDelay() {
+        return this.maxBatchDelay;
+    }
+
+    public int maxBatchSize() {
+        return this.maxBatchSize;
+    }
+
 }
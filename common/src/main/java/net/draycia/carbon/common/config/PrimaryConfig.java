@@ -22,13 +22,19 @@ package net.draycia.carbon.common.config;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.regex.PatternSyntaxException;
+import net.draycia.carbon.common.util.ChatFilter;
+import net.draycia.carbon.common.util.PlaceholderExpander;
 import net.kyori.adventure.key.Key;
 import net.kyori.adventure.sound.Sound;
+import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.framework.qual.DefaultQualifier;
 import org.spongepowered.configurate.objectmapping.ConfigSerializable;
 import org.spongepowered.configurate.objectmapping.meta.Comment;
+import org.spongepowered.configurate.objectmapping.meta.PostProcess;
+import org.spongepowered.configurate.serialize.SerializationException;
 
 @ConfigSerializable
 @DefaultQualifier(NonNull.class)
@@ -45,17 +51,27 @@ public class PrimaryConfig {
 
     @Comment("""
     The service that will be used to store and load player information.
-    One of: JSON, MYSQL, PSQL
+    One of: JSON, H2, MYSQL, PSQL
+    H2 stores all players in a single local database file, which scales better than JSON for large player counts.
     Note: If you choose MYSQL or PSQL make sure you configure the "database-settings" section of this file!
     """)
     private StorageType storageType = StorageType.JSON;
 
     @Comment("""
     When "storage-type" is set to MYSQL or PSQL, this section configures the database connection.
-    If JSON storage is used, this section can be ignored.
+    If JSON storage is used, this section can be ignored. H2 storage only uses the "save-interval" setting.
     """)
     private DatabaseSettings databaseSettings = new DatabaseSettings();
 
+    @Comment("""
+    Only used by "/carbon migrate" between MYSQL and PSQL, for the connection of the database "storage-type" doesn't select.
+    When neither is selected, "database-settings" is the source and this section the target. The "save-interval" setting is ignored.
+    """)
+    private DatabaseSettings migrationDatabaseSettings = new DatabaseSettings();
+
+    @Comment("Settings for loading player data and keeping it in memory. Offline player limits require a restart to change.")
+    private UserCacheSettings userCacheSettings = new UserCacheSettings();
+
     @Comment("Various ClearChat command settings.")
     private ClearChatSettings clearChatSettings = new ClearChatSettings();
 
@@ -67,15 +83,24 @@ public class PrimaryConfig {
     Only a single pass is done so custom placeholders will not work within each other.
     """)
     private Map<String, String> customPlaceholders = Map.of();
+    private transient @MonotonicNonNull PlaceholderExpander customPlaceholderExpander;
 
     @Comment("The suggestions shown when using the TAB key in chat.")
     private List<String> customChatSuggestions = List.of();
 
     @Comment("The placeholders replaced in chat messages, this WILL work with chat previews.")
     private Map<String, String> chatPlaceholders = Map.of();
+    private transient @MonotonicNonNull PlaceholderExpander chatPlaceholderExpander;
 
-    @Comment("Basic regex based chat filter.")
+    @Comment("""
+    Basic regex based chat filter.
+    All filters are applied in a single pass, so replaced text is not filtered again.
+    Where filters overlap, the one matching earliest in the message wins. At the same position the longest match wins,
+    except between two regular expressions, where the one listed first wins.
+    Invalid regular expressions make the config fail to load.
+    """)
     private Map<String, String> chatFilter = Map.of();
+    private transient ChatFilter compiledChatFilter = ChatFilter.compile(Map.of());
 
     @Comment("Various settings related to pinging players in channels.")
     private PingSettings pingSettings = new PingSettings();
@@ -109,6 +134,14 @@ public class PrimaryConfig {
         return this.databaseSettings;
     }
 
+    public DatabaseSettings migrationDatabaseSettings() {
+        return this.migrationDatabaseSettings;
+    }
+
+    public UserCacheSettings userCacheSettings() {
+        return this.userCacheSettings;
+    }
+
     public ClearChatSettings clearChatSettings() {
         return this.clearChatSettings;
     }
@@ -118,12 +151,13 @@ public class PrimaryConfig {
     }
 
     public String applyCustomPlaceholders(final String string) {
-        String placeholderResolvedMessage = string;
-        for (final var entry : this.customPlaceholders().entrySet()) {
-            placeholderResolvedMessage = placeholderResolvedMessage.replace("<" + entry.getKey() + ">",
-                entry.getValue());
+        // Called with message formats for every recipient, so the expansions are cached
+        @Nullable PlaceholderExpander expander = this.customPlaceholderExpander;
+        if (expander == null) {
+            expander = PlaceholderExpander.create(this.customPlaceholders());
+            this.customPlaceholderExpander = expander;
         }
-        return placeholderResolvedMessage;
+        return expander.expandCached(string);
     }
 
     public @Nullable List<String> customChatSuggestions() {
@@ -135,12 +169,12 @@ public class PrimaryConfig {
     }
 
     public String applyChatPlaceholders(final String string) {
-        String placeholderResolvedMessage = string;
-        for (final var entry : this.chatPlaceholders().entrySet()) {
-            placeholderResolvedMessage = placeholderResolvedMessage.replace("<" + entry.getKey() + ">",
-                entry.getValue());
+        @Nullable PlaceholderExpander expander = this.chatPlaceholderExpander;
+        if (expander == null) {
+            expander = PlaceholderExpander.create(this.chatPlaceholders());
+            this.chatPlaceholderExpander = expander;
         }
-        return placeholderResolvedMessage;
+        return expander.expand(string);
     }
 
     public Map<String, String> chatFilters() {
@@ -148,13 +182,17 @@ public class PrimaryConfig {
     }
 
     public String applyChatFilters(final String string) {
-        String filteredMessage = string;
+        return this.compiledChatFilter.apply(string);
+    }
 
-        for (final Map.Entry<String, String> entry : this.chatFilters().entrySet()) {
-            filteredMessage = filteredMessage.replaceAll(entry.getKey(), entry.getValue());
+    // Compiled on load, so invalid rules are reported with the config instead of on every chat message
+    @PostProcess
+    private void compileChatFilter() throws SerializationException {
+        try {
+            this.compiledChatFilter = ChatFilter.compile(this.chatFilters());
+        } catch (final PatternSyntaxException exception) {
+            throw new SerializationException(exception);
         }
-
-        return filteredMessage;
     }
 
     public PingSettings pings() {
@@ -175,6 +213,7 @@ public class PrimaryConfig {
 
     public enum StorageType {
         JSON,
+        H2,
         MYSQL,
         PSQL
     }
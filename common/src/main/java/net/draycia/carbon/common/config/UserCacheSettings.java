@@ -0,0 +1,59 @@
+/*
+ * CarbonChat
+ *
+ * Copyright (c) 2023 Josua Parks (Vicarious)
+ *                    Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.draycia.carbon.common.config;
+
+import java.time.Duration;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.framework.qual.DefaultQualifier;
+import org.spongepowered.configurate.objectmapping.ConfigSerializable;
+import org.spongepowered.configurate.objectmapping.meta.Comment;
+
+@ConfigSerializable
+@DefaultQualifier(NonNull.class)
+public class UserCacheSettings {
+
+    @Comment("""
+        The maximum number of offline players kept in memory, i.e. players loaded for commands like /ignore or /mute.
+        When the limit is reached the least useful entries are saved and unloaded. Online players never count towards this.
+        """)
+    private int maximumOfflinePlayers = 1000;
+
+    @Comment("How long, in seconds, an offline player is kept in memory after it was last used.")
+    private int expireOfflinePlayersAfter = 120;
+
+    @Comment("""
+        How long, in seconds, logging in players wait for their data to load before they may join.
+        Players are let in once this passes, even if their data is still loading.
+        """)
+    private int loginLoadTimeout = 10;
+
+    public int maximumOfflinePlayers() {
+        return this.maximumOfflinePlayers;
+    }
+
+    public int expireOfflinePlayersAfter() {
+        return this.expireOfflinePlayersAfter;
+    }
+
+    public Duration loginLoadTimeout() {
+        return Duration.ofSeconds(Math.max(1, this.loginLoadTimeout));
+    }
+
+}
@@ -30,7 +30,7 @@ import net.draycia.carbon.common.config.ConfigFactory;
 import net.draycia.carbon.common.event.events.CarbonChatEventImpl;
 import net.draycia.carbon.common.event.events.CarbonEarlyChatEvent;
 import net.draycia.carbon.common.messages.CarbonMessages;
-import net.draycia.carbon.common.users.WrappedCarbonPlayer;
+import net.draycia.carbon.common.users.MessageTagPermissions;
 import net.kyori.adventure.audience.Audience;
 import net.kyori.adventure.chat.SignedMessage;
 import net.kyori.adventure.key.Key;
@@ -42,15 +42,18 @@ public abstract class ChatListenerInternal {
     private final ConfigFactory configFactory;
     private final CarbonMessages carbonMessages;
     private final CarbonEventHandler carbonEventHandler;
+    private final MessageTagPermissions messageTagPermissions;
 
     protected ChatListenerInternal(
         final CarbonEventHandler carbonEventHandler,
         final CarbonMessages carbonMessages,
-        final ConfigFactory configFactory
+        final ConfigFactory configFactory,
+        final MessageTagPermissions messageTagPermissions
     ) {
         this.configFactory = configFactory;
         this.carbonMessages = carbonMessages;
         this.carbonEventHandler = carbonEventHandler;
+        this.messageTagPermissions = messageTagPermissions;
     }
 
     protected CarbonChatEvent prepareAndEmitChatEvent(final CarbonPlayer sender, final String messageContent, final SignedMessage signedMessage) {
@@ -70,13 +73,7 @@ public abstract class ChatListenerInternal {
 
         content = earlyChatEvent.message();
 
-        final Component message;
-
-        if (sender instanceof WrappedCarbonPlayer wrapped) {
-            message = wrapped.parseMessageTags(content);
-        } else {
-            message = WrappedCarbonPlayer.parseMessageTags(content, sender::hasPermission);
-        }
+        final Component message = this.messageTagPermissions.parse(sender, content);
 
         if (sender.leftChannels().contains(channel.key())) {
             sender.joinChannel(channel);
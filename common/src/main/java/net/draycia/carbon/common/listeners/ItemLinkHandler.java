@@ -20,40 +20,79 @@
 package net.draycia.carbon.common.listeners;
 
 import com.google.inject.Inject;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.regex.Pattern;
 import net.draycia.carbon.api.event.CarbonEventHandler;
 import net.draycia.carbon.api.event.events.CarbonChatEvent;
 import net.draycia.carbon.api.util.InventorySlot;
+import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.TextReplacementConfig;
+import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.framework.qual.DefaultQualifier;
 
+@DefaultQualifier(NonNull.class)
 public class ItemLinkHandler implements Listener {
 
+    private final Map<String, InventorySlot> slotsByPlaceholder = new HashMap<>();
+    private final Pattern placeholderPattern;
+
     @Inject
     public ItemLinkHandler(final CarbonEventHandler events) {
+        final StringJoiner placeholders = new StringJoiner("|", "<(", ")>");
+        for (final var slot : InventorySlot.SLOTS) {
+            for (final var placeholder : slot.placeholders()) {
+                if (this.slotsByPlaceholder.putIfAbsent(placeholder, slot) == null) {
+                    placeholders.add(Pattern.quote(placeholder));
+                }
+            }
+        }
+        this.placeholderPattern = Pattern.compile(placeholders.toString());
+
         events.subscribe(CarbonChatEvent.class, 2, false, event -> {
             if (!event.sender().hasPermission("carbon.itemlink")) {
                 return;
             }
 
-            for (final var slot : InventorySlot.SLOTS) {
-                for (final var placeholder : slot.placeholders()) {
-                    event.message(
-                        event.message()
-                            .replaceText(TextReplacementConfig.builder()
-                                .matchLiteral("<" + placeholder + ">")
-                                .once()
-                                .replacement(builder -> {
-                                    final var itemComponent = event.sender().createItemHoverComponent(slot);
-
-                                    if (itemComponent == null) {
-                                        return builder;
-                                    }
-
-                                    return event.sender().createItemHoverComponent(slot);
-                                })
-                                .build())
-                    );
-                }
+            if (PlainTextComponentSerializer.plainText().serialize(event.message()).indexOf('<') == -1) {
+                return;
             }
+
+            // Each placeholder is only replaced once, and each slot's item only created once
+            final Set<String> replaced = new HashSet<>();
+            final Map<InventorySlot, @Nullable Component> items = new HashMap<>();
+
+            event.message(
+                event.message()
+                    .replaceText(TextReplacementConfig.builder()
+                        .match(this.placeholderPattern)
+                        .replacement((match, builder) -> {
+                            final String placeholder = match.group(1);
+
+                            if (!replaced.add(placeholder)) {
+                                return builder;
+                            }
+
+                            final InventorySlot slot = this.slotsByPlaceholder.get(placeholder);
+                            if (!items.containsKey(slot)) {
+                                items.put(slot, event.sender().createItemHoverComponent(slot));
+                            }
+
+                            final @Nullable Component itemComponent = items.get(slot);
+
+                            if (itemComponent == null) {
+                                return builder;
+                            }
+
+                            return itemComponent;
+                        })
+                        .build())
+            );
         });
     }
 
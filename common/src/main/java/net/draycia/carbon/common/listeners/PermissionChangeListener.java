@@ -0,0 +1,75 @@
+/*
+ * CarbonChat
+ *
+ * Copyright (c) 2023 Josua Parks (Vicarious)
+ *                    Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.draycia.carbon.common.listeners;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import net.draycia.carbon.common.channels.ChannelMembership;
+import net.draycia.carbon.common.users.MessageTagPermissions;
+import net.luckperms.api.LuckPermsProvider;
+import net.luckperms.api.event.user.UserDataRecalculateEvent;
+import org.apache.logging.log4j.Logger;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.framework.qual.DefaultQualifier;
+
+@DefaultQualifier(NonNull.class)
+@Singleton
+public class PermissionChangeListener implements Listener {
+
+    private final Logger logger;
+    private final ChannelMembership channelMembership;
+    private final MessageTagPermissions messageTagPermissions;
+    private boolean subscribed = false;
+
+    @Inject
+    public PermissionChangeListener(
+        final Logger logger,
+        final ChannelMembership channelMembership,
+        final MessageTagPermissions messageTagPermissions
+    ) {
+        this.logger = logger;
+        this.channelMembership = channelMembership;
+        this.messageTagPermissions = messageTagPermissions;
+        this.subscribeToLuckPerms();
+    }
+
+    /**
+     * Subscribe to LuckPerms permission changes, if LuckPerms is loaded and not yet subscribed to.
+     * Until then, cached message tag and channel permissions are rechecked every few seconds.
+     */
+    public synchronized void subscribeToLuckPerms() {
+        if (this.subscribed) {
+            return;
+        }
+
+        try {
+            LuckPermsProvider.get().getEventBus().subscribe(UserDataRecalculateEvent.class, event -> {
+                this.messageTagPermissions.invalidate(event.getUser().getUniqueId());
+                this.channelMembership.invalidate(event.getUser().getUniqueId());
+            });
+            this.messageTagPermissions.permissionEventsAvailable();
+            this.channelMembership.permissionEventsAvailable();
+            this.subscribed = true;
+        } catch (final IllegalStateException | NoClassDefFoundError ignored) {
+            this.logger.debug("LuckPerms is not loaded yet, cached permissions will be refreshed periodically");
+        }
+    }
+
+}
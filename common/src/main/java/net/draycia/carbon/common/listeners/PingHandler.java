@@ -19,16 +19,21 @@
  */
 package net.draycia.carbon.common.listeners;
 
+import com.google.common.base.Suppliers;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
-import java.util.Optional;
+import com.seiama.event.EventConfig;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 import java.util.regex.Pattern;
 import net.draycia.carbon.api.event.CarbonEventHandler;
 import net.draycia.carbon.api.event.events.CarbonChatEvent;
 import net.draycia.carbon.api.users.CarbonPlayer;
-import net.draycia.carbon.api.util.KeyedRenderer;
 import net.draycia.carbon.common.config.ConfigFactory;
-import net.kyori.adventure.identity.Identity;
+import net.draycia.carbon.common.event.events.CarbonReloadEvent;
+import net.kyori.adventure.audience.Audience;
 import net.kyori.adventure.key.Key;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.TextReplacementConfig;
@@ -36,7 +41,6 @@ import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.framework.qual.DefaultQualifier;
-import org.jetbrains.annotations.NotNull;
 
 import static net.draycia.carbon.api.util.KeyedRenderer.keyedRenderer;
 import static net.kyori.adventure.key.Key.key;
@@ -46,48 +50,124 @@ import static net.kyori.adventure.key.Key.key;
 public class PingHandler implements Listener {
 
     private final Key pingKey = key("carbon", "pings");
-    private final KeyedRenderer renderer;
     private final ConfigFactory configFactory;
+    // Online players and their names, the index is built from them again after they change
+    private final Map<UUID, CarbonPlayer> online = new ConcurrentHashMap<>();
+    private final Map<UUID, PingIndex.Names> names = new ConcurrentHashMap<>();
+    private volatile @Nullable PingIndex index;
 
     @Inject
     public PingHandler(final CarbonEventHandler events, final ConfigFactory configFactory) {
         this.configFactory = configFactory;
-        this.renderer = keyedRenderer(this.pingKey, (sender, recipient, message, originalMessage) -> {
-            if (!(recipient instanceof CarbonPlayer recipientPlayer)) {
-                return message;
-            }
 
-            return this.convertPings(recipientPlayer, message);
-        });
+        // Whether nicknames are used may have changed
+        events.subscribe(CarbonReloadEvent.class, 0, EventConfig.DEFAULT_ACCEPTS_CANCELLED, $ -> this.online.keySet().forEach(this::namesChanged));
 
         events.subscribe(CarbonChatEvent.class, 1, false, event -> {
-            event.renderers().add(0, this.renderer);
+            // Recipients and message may still change, so find pings once, when the first recipient is rendered
+            final Supplier<Map<UUID, PingIndex.Names>> pinged = Suppliers.memoize(() -> this.pingedRecipients(event));
+
+            event.renderers().add(0, keyedRenderer(this.pingKey, (sender, recipient, message, originalMessage) -> {
+                if (!(recipient instanceof CarbonPlayer recipientPlayer)) {
+                    return message;
+                }
+
+                final PingIndex.@Nullable Names names = pinged.get().get(recipientPlayer.uuid());
+                if (names == null) {
+                    return message;
+                }
+
+                return this.highlightPings(recipientPlayer, names, message);
+            }));
         });
     }
 
+    /**
+     * Add a player that came online, so they can be pinged.
+     *
+     * @param player the player
+     */
+    public synchronized void joined(final CarbonPlayer player) {
+        // Loading may finish after the player already quit
+        if (!player.online()) {
+            return;
+        }
+
+        this.online.put(player.uuid(), player);
+        this.names.put(player.uuid(), PingIndex.names(player));
+        this.index = null;
+    }
+
+    /**
+     * Remove a player that went offline.
+     *
+     * @param player the player's id
+     */
+    public synchronized void quit(final UUID player) {
+        this.online.remove(player);
+        if (this.names.remove(player) != null) {
+            this.index = null;
+        }
+    }
+
+    /**
+     * Update the names of a player, for example because their nickname changed.
+     *
+     * @param player the player's id
+     */
+    public synchronized void namesChanged(final UUID player) {
+        final @Nullable CarbonPlayer onlinePlayer = this.online.get(player);
+        if (onlinePlayer == null) {
+            return;
+        }
+
+        final PingIndex.Names names = PingIndex.names(onlinePlayer);
+        if (!names.equals(this.names.put(player, names))) {
+            this.index = null;
+        }
+    }
+
+    private synchronized PingIndex index(final String prefix) {
+        @Nullable PingIndex index = this.index;
+        if (index == null || !index.prefix().equals(prefix)) {
+            index = new PingIndex(prefix, Map.copyOf(this.names));
+            this.index = index;
+        }
+        return index;
+    }
+
     public Component convertPings(final CarbonPlayer recipient, final Component message) {
-        final String prefix = this.configFactory.primaryConfig().pings().prefix();
-        final @Nullable Component displayComponent = recipient.displayName();
-        final String displayName;
+        return this.highlightPings(recipient, PingIndex.names(recipient), message);
+    }
 
-        if (displayComponent != null) {
-            displayName = PlainTextComponentSerializer.plainText().serialize(displayComponent);
-        } else {
-            final @NotNull Optional<Component> audienceNickname = recipient.get(Identity.DISPLAY_NAME);
+    private Map<UUID, PingIndex.Names> pingedRecipients(final CarbonChatEvent event) {
+        for (final Audience recipient : event.recipients()) {
+            // Players online before we saw them join, such as after a plugin reload
+            if (recipient instanceof CarbonPlayer player && !this.online.containsKey(player.uuid())) {
+                this.joined(player);
+            }
+        }
 
-            displayName = audienceNickname
-                .map(component -> PlainTextComponentSerializer.plainText().serialize(component))
-                .orElse(recipient.username()); // Hacky workaround
+        final String prefix = this.configFactory.primaryConfig().pings().prefix();
+        @Nullable PingIndex index = this.index;
+        if (index == null || !index.prefix().equals(prefix)) {
+            index = this.index(prefix);
         }
 
+        return index.pinged(PlainTextComponentSerializer.plainText().serialize(event.message()));
+    }
+
+    private Component highlightPings(final CarbonPlayer recipient, final PingIndex.Names names, final Component message) {
+        final String prefix = this.configFactory.primaryConfig().pings().prefix();
+
         return message.replaceText(TextReplacementConfig.builder()
             // \B(@Username|@Displayname)\b
             .match(Pattern.compile(
                 String.format(
                     "\\B%1$s(%2$s|%3$s)\\b",
                     Pattern.quote(prefix),
-                    Pattern.quote(recipient.username()),
-                    Pattern.quote(displayName)),
+                    Pattern.quote(names.username()),
+                    Pattern.quote(names.displayName())),
                 Pattern.CASE_INSENSITIVE))
             .replacement(matchedText -> {
                 if (this.configFactory.primaryConfig().pings().playSound()) {
@@ -0,0 +1,133 @@
+/*
+ * CarbonChat
+ *
+ * Copyright (c) 2023 Josua Parks (Vicarious)
+ *                    Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.draycia.carbon.common.listeners;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import net.draycia.carbon.api.users.CarbonPlayer;
+import net.draycia.carbon.common.util.AhoCorasick;
+import net.kyori.adventure.identity.Identity;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.framework.qual.DefaultQualifier;
+
+/**
+ * The names players can be pinged by, matched against a message in a single scan.
+ *
+ * <p>Instances are immutable, {@link PingHandler} builds a new one after online players or their names change.</p>
+ */
+@DefaultQualifier(NonNull.class)
+final class PingIndex {
+
+    private final String prefix;
+    private final Map<UUID, Names> names;
+    private final AhoCorasick<List<UUID>> matcher;
+
+    PingIndex(final String prefix, final Map<UUID, Names> names) {
+        this.prefix = prefix;
+        this.names = names;
+
+        // Players can share a name, or differ only in case
+        final Map<String, List<UUID>> patterns = new HashMap<>();
+        for (final Map.Entry<UUID, Names> entry : names.entrySet()) {
+            for (final String name : List.of(entry.getValue().username(), entry.getValue().displayName())) {
+                if (name.isEmpty()) {
+                    continue;
+                }
+                final List<UUID> players = patterns.computeIfAbsent(fold(prefix + name), $ -> new ArrayList<>(1));
+                if (!players.contains(entry.getKey())) {
+                    players.add(entry.getKey());
+                }
+            }
+        }
+        this.matcher = AhoCorasick.build(patterns, true);
+    }
+
+    static Names names(final CarbonPlayer player) {
+        final @Nullable Component displayComponent = displayComponent(player);
+        final String displayName = displayComponent == null
+            ? player.username() // Hacky workaround
+            : PlainTextComponentSerializer.plainText().serialize(displayComponent);
+
+        return new Names(player.username(), displayComponent, displayName);
+    }
+
+    private static @Nullable Component displayComponent(final CarbonPlayer player) {
+        final @Nullable Component displayName = player.displayName();
+        if (displayName != null) {
+            return displayName;
+        }
+        return player.get(Identity.DISPLAY_NAME).orElse(null);
+    }
+
+    String prefix() {
+        return this.prefix;
+    }
+
+    /**
+     * Find the players pinged in a message, matching {@code \B<prefix>(<username>|<display name>)\b}
+     * case-insensitively.
+     *
+     * @param message plain text message
+     * @return names of pinged players
+     */
+    Map<UUID, Names> pinged(final String message) {
+        final Map<UUID, Names> pinged = new HashMap<>();
+        this.matcher.forEachMatch(message, match -> {
+            if (!boundaries(message, match.start(), match.end())) {
+                return;
+            }
+            for (final UUID player : match.value()) {
+                pinged.put(player, this.names.get(player));
+            }
+        });
+        return pinged;
+    }
+
+    private static boolean boundaries(final String text, final int start, final int end) {
+        // No word boundary before the match, a word boundary after it
+        final boolean wordBefore = start > 0 && isWord(text.charAt(start - 1));
+        final boolean wordAfter = end < text.length() && isWord(text.charAt(end));
+        return wordBefore == isWord(text.charAt(start)) && wordAfter != isWord(text.charAt(end - 1));
+    }
+
+    // The characters Pattern treats as word characters for \b
+    private static boolean isWord(final char c) {
+        return c == '_' || Character.isLetterOrDigit(c);
+    }
+
+    // Matches the case folding done by AhoCorasick, so names differing only in case share an entry
+    private static String fold(final String name) {
+        final char[] chars = name.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+        }
+        return new String(chars);
+    }
+
+    record Names(String username, @Nullable Component displayComponent, String displayName) {
+    }
+
+}
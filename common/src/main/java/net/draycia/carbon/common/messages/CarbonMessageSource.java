@@ -19,6 +19,8 @@
  */
 package net.draycia.carbon.common.messages;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import com.seiama.event.EventConfig;
@@ -36,10 +38,12 @@ import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
@@ -67,7 +71,8 @@ import org.checkerframework.framework.qual.DefaultQualifier;
 public final class CarbonMessageSource implements IMessageSource<Audience, String> {
 
     private final Locale defaultLocale;
-    private volatile Map<Locale, Properties> locales = Map.of();
+    // Replaced as a whole on reload, so lookups never see a partially loaded set of locales
+    private volatile TranslationStore translations = new TranslationStore(Map.of(), Locale.ROOT);
     private final Path pluginJar;
     private final Logger logger;
     private final Path dataDirectory;
@@ -155,7 +160,16 @@ public final class CarbonMessageSource implements IMessageSource<Audience, Strin
             });
         }
 
-        this.locales = Map.copyOf(map);
+        final Map<Locale, Map<String, String>> messages = new HashMap<>();
+        for (final Map.Entry<Locale, Properties> entry : map.entrySet()) {
+            final Map<String, String> localeMessages = new HashMap<>();
+            for (final String key : entry.getValue().stringPropertyNames()) {
+                localeMessages.put(key, entry.getValue().getProperty(key));
+            }
+            messages.put(entry.getKey(), Map.copyOf(localeMessages));
+        }
+
+        this.translations = new TranslationStore(Map.copyOf(messages), this.defaultLocale);
     }
 
     private void tryLoadLocale(final Map<Locale, Properties> map, final Path localeDirectory, final Path localeFile, final Locale locale) {
@@ -207,15 +221,13 @@ public final class CarbonMessageSource implements IMessageSource<Audience, Strin
     }
 
     private String forPlayer(final String key, final CarbonPlayer player) {
-        if (player.locale() != null) {
-            final var properties = this.locales.get(player.locale());
+        final @Nullable Locale locale = player.locale();
 
-            if (properties != null) {
-                final var message = properties.getProperty(key);
+        if (locale != null) {
+            final @Nullable String message = this.translations.message(locale, key);
 
-                if (message != null) {
-                    return message;
-                }
+            if (message != null) {
+                return message;
             }
         }
 
@@ -223,10 +235,10 @@ public final class CarbonMessageSource implements IMessageSource<Audience, Strin
     }
 
     private String forAudience(final String key, final Audience audience) {
-        final Properties defaultProperties = this.locales.get(this.defaultLocale);
+        final TranslationStore translations = this.translations;
 
-        if (defaultProperties != null) {
-            final String value = defaultProperties.getProperty(key);
+        if (translations.hasDefaultLocale()) {
+            final @Nullable String value = translations.message(this.defaultLocale, key);
 
             if (value == null) {
                 this.logger.warn("No message mapping for key " + key + " in default locale " + this.defaultLocale.getDisplayName());
@@ -309,4 +321,63 @@ public final class CarbonMessageSource implements IMessageSource<Audience, Strin
         return Translator.parseLocale(localeString);
     }
 
+    /**
+     * Messages for every loaded locale, looked up through a fallback chain such as {@code nb_NO -> nb -> default}.
+     */
+    private static final class TranslationStore {
+
+        private static final int MAX_FALLBACK_CHAINS = 256;
+
+        private final Map<Locale, Map<String, String>> messages;
+        private final Locale defaultLocale;
+        // Built on first use of each locale. Bounded, as clients may report any locale, loaded or not
+        private final Cache<Locale, List<Map<String, String>>> fallbackChains = Caffeine.newBuilder()
+            .maximumSize(MAX_FALLBACK_CHAINS)
+            .build();
+
+        private TranslationStore(final Map<Locale, Map<String, String>> messages, final Locale defaultLocale) {
+            this.messages = messages;
+            this.defaultLocale = defaultLocale;
+        }
+
+        private boolean hasDefaultLocale() {
+            return this.messages.containsKey(this.defaultLocale);
+        }
+
+        private @Nullable String message(final Locale locale, final String key) {
+            for (final Map<String, String> localeMessages : this.fallbackChains.get(locale, this::fallbackChain)) {
+                final @Nullable String message = localeMessages.get(key);
+
+                if (message != null) {
+                    return message;
+                }
+            }
+
+            return null;
+        }
+
+        private List<Map<String, String>> fallbackChain(final Locale locale) {
+            final Set<Locale> candidates = new LinkedHashSet<>();
+            candidates.add(locale);
+            if (!locale.getVariant().isEmpty()) {
+                candidates.add(new Locale(locale.getLanguage(), locale.getCountry()));
+            }
+            if (!locale.getCountry().isEmpty()) {
+                candidates.add(new Locale(locale.getLanguage()));
+            }
+            candidates.add(this.defaultLocale);
+
+            final List<Map<String, String>> chain = new ArrayList<>(candidates.size());
+            for (final Locale candidate : candidates) {
+                final @Nullable Map<String, String> localeMessages = this.messages.get(candidate);
+                if (localeMessages != null) {
+                    chain.add(localeMessages);
+                }
+            }
+
+            return List.copyOf(chain);
+        }
+
+    }
+
 }
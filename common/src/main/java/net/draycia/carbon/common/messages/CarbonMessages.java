@@ -230,6 +230,30 @@ public interface CarbonMessages {
     @Message("config.reload.failed")
     void configReloadFailed(final Audience audience);
 
+    /*
+     * =============================================================
+     * ========================= Migration =========================
+     * =============================================================
+     */
+
+    @Message("migration.started")
+    void migrationStarted(final Audience audience, final String from, final String to);
+
+    @Message("migration.progress")
+    void migrationProgress(final Audience audience, final String migrated, final String total);
+
+    @Message("migration.completed")
+    void migrationCompleted(final Audience audience, final String migrated, final String from, final String to, final String seconds);
+
+    @Message("migration.failed")
+    void migrationFailed(final Audience audience, final Component reason);
+
+    @Message("migration.unsupported")
+    void migrationUnsupported(final Audience audience, final String from, final String to);
+
+    @Message("migration.already_running")
+    void migrationAlreadyRunning(final Audience audience);
+
     /*
      * =============================================================
      * ====================== Cloud Messages =======================
@@ -345,6 +369,15 @@ public interface CarbonMessages {
     @Message("command.nickname.others.description")
     Component commandNicknameOthersDescription();
 
+    @Message("command.migrate.argument.from")
+    Component commandMigrateArgumentFrom();
+
+    @Message("command.migrate.argument.to")
+    Component commandMigrateArgumentTo();
+
+    @Message("command.migrate.description")
+    Component commandMigrateDescription();
+
     @Message("command.reload.description")
     Component commandReloadDescription();
 
@@ -0,0 +1,238 @@
+/*
+ * CarbonChat
+ *
+ * Copyright (c) 2023 Josua Parks (Vicarious)
+ *                    Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.draycia.carbon.common.messages;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.inject.Singleton;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.KeybindComponent;
+import net.kyori.adventure.text.TranslatableComponent;
+import net.kyori.adventure.text.event.HoverEvent;
+import net.kyori.adventure.text.minimessage.Context;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import net.kyori.adventure.text.minimessage.ParsingException;
+import net.kyori.adventure.text.minimessage.tag.Modifying;
+import net.kyori.adventure.text.minimessage.tag.Tag;
+import net.kyori.adventure.text.minimessage.tag.resolver.ArgumentQueue;
+import net.kyori.adventure.text.minimessage.tag.resolver.TagResolver;
+import net.kyori.adventure.text.minimessage.tag.standard.StandardTags;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.framework.qual.DefaultQualifier;
+
+/**
+ * Parses message formats once, keeping the component tree with holes where Moonshine placeholders go.
+ *
+ * <p>Later renders of the same format only fill in the holes. Formats using tags that depend on the
+ * placeholder values (like gradients) or on the audience (like MiniPlaceholders) are parsed every
+ * time, as before. So are formats containing tags that could not be resolved, as they may resolve
+ * for another audience.</p>
+ */
+@DefaultQualifier(NonNull.class)
+@Singleton
+public final class MessageTemplates {
+
+    private static final String HOLE_PREFIX = "carbon:template_hole/";
+    private static final int MAX_TEMPLATES = 1024;
+    private static final Template NOT_REUSABLE = new Template(null);
+
+    private final Cache<TemplateKey, Template> templates = Caffeine.newBuilder()
+        .maximumSize(MAX_TEMPLATES)
+        .build();
+
+    /**
+     * Deserialize a MiniMessage format, inserting the given placeholders.
+     *
+     * <p>Equivalent to {@code MiniMessage.miniMessage().deserialize(input, placeholders + dynamicTags)}.</p>
+     *
+     * @param input        format
+     * @param placeholders placeholder components, by tag name
+     * @param dynamicTags  other tags, which may resolve differently every time
+     * @return component
+     */
+    public Component deserialize(
+        final String input,
+        final Map<String, ? extends Component> placeholders,
+        final TagResolver dynamicTags
+    ) {
+        final TemplateKey key = new TemplateKey(input, Set.copyOf(placeholders.keySet()));
+        @Nullable Template template = this.templates.getIfPresent(key);
+
+        if (template == null) {
+            template = compile(input, key.placeholders(), dynamicTags);
+            this.templates.put(key, template);
+        }
+
+        final @Nullable Component tree = template.tree();
+        if (tree == null) {
+            return MiniMessage.miniMessage().deserialize(input, TagResolver.resolver(placeholderTags(placeholders), dynamicTags));
+        }
+
+        return fill(tree, placeholders).compact();
+    }
+
+    /**
+     * Create tags inserting the given placeholders.
+     *
+     * @param placeholders placeholder components, by tag name
+     * @return tag resolver
+     */
+    public static TagResolver placeholderTags(final Map<String, ? extends Component> placeholders) {
+        final TagResolver.Builder tagResolver = TagResolver.builder();
+
+        for (final var entry : placeholders.entrySet()) {
+            tagResolver.tag(entry.getKey(), Tag.inserting(entry.getValue()));
+        }
+
+        return tagResolver.build();
+    }
+
+    private static Template compile(final String input, final Set<String> placeholders, final TagResolver dynamicTags) {
+        final TagResolver.Builder holes = TagResolver.builder();
+        for (final String placeholder : placeholders) {
+            holes.tag(placeholder, Tag.inserting(Component.keybind(HOLE_PREFIX + placeholder)));
+        }
+
+        // Modifying tags transform the inserted components, so they can't be filled in afterwards
+        final AtomicBoolean reusable = new AtomicBoolean(true);
+        final MiniMessage parser = MiniMessage.builder()
+            .tags(tracking(StandardTags.defaults(), tag -> tag instanceof Modifying, reusable))
+            .build();
+        final TagResolver holeTags = holes.build();
+        final Component tree = parser.deserialize(input, TagResolver.resolver(
+            holeTags,
+            tracking(dynamicTags, $ -> true, reusable),
+            unresolved(TagResolver.resolver(StandardTags.defaults(), holeTags, dynamicTags), reusable)
+        ));
+
+        return reusable.get() ? new Template(tree) : NOT_REUSABLE;
+    }
+
+    private static TagResolver tracking(final TagResolver delegate, final Predicate<Tag> unsafe, final AtomicBoolean reusable) {
+        return new TagResolver() {
+            @Override
+            public @Nullable Tag resolve(
+                final String name,
+                final ArgumentQueue arguments,
+                final Context ctx
+            ) throws ParsingException {
+                final @Nullable Tag tag = delegate.resolve(name, arguments, ctx);
+
+                if (tag != null && unsafe.test(tag)) {
+                    reusable.set(false);
+                }
+
+                return tag;
+            }
+
+            @Override
+            public boolean has(final String name) {
+                return delegate.has(name);
+            }
+        };
+    }
+
+    // Tags nothing resolves are left as text. Those may be dynamic tags that aren't available
+    // for this audience, like MiniPlaceholders for console, so the tree can't be reused.
+    private static TagResolver unresolved(final TagResolver known, final AtomicBoolean reusable) {
+        return new TagResolver() {
+            @Override
+            public @Nullable Tag resolve(
+                final String name,
+                final ArgumentQueue arguments,
+                final Context ctx
+            ) {
+                this.has(name);
+                return null;
+            }
+
+            @Override
+            public boolean has(final String name) {
+                if (!known.has(name)) {
+                    reusable.set(false);
+                }
+
+                return false;
+            }
+        };
+    }
+
+    private static Component fill(final Component component, final Map<String, ? extends Component> placeholders) {
+        if (component instanceof KeybindComponent keybind && keybind.keybind().startsWith(HOLE_PREFIX)) {
+            final @Nullable Component value = placeholders.get(keybind.keybind().substring(HOLE_PREFIX.length()));
+            Component filled = value == null ? Component.empty() : value;
+
+            // Content between opening and closing placeholder tags is appended to the inserted component
+            if (!keybind.children().isEmpty()) {
+                final List<Component> children = new ArrayList<>(filled.children());
+                children.addAll(fillChildren(keybind.children(), placeholders));
+                filled = filled.children(children);
+            }
+
+            // Style merged into the hole when the tree was compacted
+            if (!keybind.style().isEmpty()) {
+                filled = Component.text().style(keybind.style()).append(filled).build();
+            }
+
+            return filled;
+        }
+
+        Component filled = component;
+
+        if (!component.children().isEmpty()) {
+            filled = filled.children(fillChildren(component.children(), placeholders));
+        }
+
+        if (filled instanceof TranslatableComponent translatable && !translatable.args().isEmpty()) {
+            filled = translatable.args(fillChildren(translatable.args(), placeholders));
+        }
+
+        final @Nullable HoverEvent<?> hoverEvent = component.hoverEvent();
+        if (hoverEvent != null && hoverEvent.action() == HoverEvent.Action.SHOW_TEXT) {
+            filled = filled.hoverEvent(HoverEvent.showText(fill((Component) hoverEvent.value(), placeholders)));
+        }
+
+        return filled;
+    }
+
+    private static List<Component> fillChildren(final List<Component> children, final Map<String, ? extends Component> placeholders) {
+        final List<Component> filled = new ArrayList<>(children.size());
+
+        for (final Component child : children) {
+            filled.add(fill(child, placeholders));
+        }
+
+        return filled;
+    }
+
+    private record TemplateKey(String input, Set<String> placeholders) {
+    }
+
+    private record Template(@Nullable Component tree) {
+    }
+
+}
@@ -18,12 +18,16 @@
 package net.draycia.carbon.common.messages;
 
 import io.leangen.geantyref.GenericTypeReflector;
+import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import net.kyori.moonshine.Moonshine;
 import net.kyori.moonshine.annotation.Placeholder;
 import net.kyori.moonshine.annotation.meta.ThreadSafe;
@@ -39,10 +43,22 @@ import org.checkerframework.checker.nullness.qual.Nullable;
 
 import static java.util.Collections.emptyNavigableSet;
 
+/**
+ * Moonshine's standard placeholder resolving, with the reflection done once per method and type.
+ *
+ * <p>Resolver chains are cached by type, so an instance must only be used by a single {@link Moonshine}
+ * instance.</p>
+ *
+ * @param <R> receiver type
+ * @param <I> intermediate message type
+ * @param <F> finalised placeholder type
+ */
 @ThreadSafe
 public final class StandardPlaceholderResolverStrategyButDifferent<R, I, F> implements IPlaceholderResolverStrategy<R, I, F> {
 
     private final ISupertypeStrategy supertypeStrategy = new StandardSupertypeThenInterfaceSupertypeStrategy(false);
+    private final Map<Method, MethodPlan> methodPlans = new ConcurrentHashMap<>();
+    private final Map<Type, List<IPlaceholderResolver<R, Object, ? extends F>>> resolverChains = new ConcurrentHashMap<>();
 
     @Override
     public Map<String, ? extends F> resolvePlaceholders(final Moonshine<R, I, ?, F> moonshine,
@@ -56,32 +72,19 @@ public final class StandardPlaceholderResolverStrategyButDifferent<R, I, F> impl
 
         final Map<String, F> finalisedPlaceholders = new LinkedHashMap<>(parameters.length);
         final Map<String, ContinuanceValue<?>> resolvingPlaceholders = new LinkedHashMap<>(16);
-        final Parameter[] methodParameters = moonshineMethod.reflectMethod().getParameters();
-        final Type[] exactParameterTypes = GenericTypeReflector.getParameterTypes(
-            moonshineMethod.reflectMethod(), moonshine.proxiedType());
+        final MethodPlan plan = this.methodPlans.computeIfAbsent(moonshineMethod.reflectMethod(),
+            method -> new MethodPlan(method, moonshine.proxiedType()));
 
         // Don't resolve recipients
         for (int idx = 1; idx < parameters.length; ++idx) {
-
-            final Parameter parameter = methodParameters[idx];
             final @Nullable Object value = parameters[idx];
             if (value == null) {
                 // Nothing to resolve with.
                 continue;
             }
 
-            final Type parameterType = GenericTypeReflector.getExactSubType(
-                exactParameterTypes[idx], value.getClass());
-
-            final @Nullable Placeholder placeholder = parameter.getAnnotation(Placeholder.class);
-
-            final String placeholderName = (placeholder != null && !placeholder.value().isEmpty())
-                ? placeholder.value()
-                : parameter.getName();
-
-            resolvingPlaceholders
-                .put(placeholderName, ContinuanceValue.continuanceValue(value, parameterType));
-
+            resolvingPlaceholders.put(plan.placeholderNames[idx],
+                ContinuanceValue.continuanceValue(value, plan.exactSubType(idx, value.getClass())));
         }
 
         this.resolvePlaceholder(moonshine, receiver, finalisedPlaceholders,
@@ -103,8 +106,6 @@ public final class StandardPlaceholderResolverStrategyButDifferent<R, I, F> impl
                                     final Map<String, ContinuanceValue<?>> resolvingPlaceholders,
                                     final MoonshineMethod<? extends R> moonshineMethod, final @Nullable Object[] parameters)
         throws UnfinishedPlaceholderException {
-        final var weightedPlaceholderResolvers = moonshine.weightedPlaceholderResolvers();
-
         // Shamelessly stealing kashike's joke
         dancing:
         while (!resolvingPlaceholders.isEmpty()) {
@@ -115,34 +116,24 @@ public final class StandardPlaceholderResolverStrategyButDifferent<R, I, F> impl
                 final Type type = continuanceEntry.getValue().type();
                 final Object value = continuanceEntry.getValue().value();
 
-                final Iterator<Type> hierarchyIterator =
-                    new PrefixedDelegateIterator<>(type, this.supertypeStrategy.hierarchyIterator(type));
-                while (hierarchyIterator.hasNext()) {
-                    final Type supertype = hierarchyIterator.next();
-
-                    for (final var weighted : weightedPlaceholderResolvers.getOrDefault(supertype, emptyNavigableSet())) {
-                        @SuppressWarnings("unchecked") // This should be equivalent.
-                        final var placeholderResolver =
-                            (IPlaceholderResolver<R, Object, ? extends F>) weighted.value();
-
-                        final var resolverResult =
-                            placeholderResolver.resolve(continuancePlaceholderName, value, receiver,
-                                moonshineMethod.owner().getType(),
-                                moonshineMethod.reflectMethod(), parameters);
-                        if (resolverResult == null) {
-                            // The resolver did not want to resolve this; pass it on.
-                            continue;
-                        }
-
-                        resolvingPlaceholderIterator.remove();
-
-                        resolverResult.forEach((resolvedName, resolvedValue) ->
-                            resolvedValue.map(conclusionValue -> finalisedPlaceholders
-                                    .put(resolvedName, conclusionValue.value()),
-                                continuanceValue -> resolvingPlaceholders.put(resolvedName, continuanceValue)));
-
-                        continue dancing;
+                for (final var placeholderResolver : this.resolverChain(moonshine, type)) {
+                    final var resolverResult =
+                        placeholderResolver.resolve(continuancePlaceholderName, value, receiver,
+                            moonshineMethod.owner().getType(),
+                            moonshineMethod.reflectMethod(), parameters);
+                    if (resolverResult == null) {
+                        // The resolver did not want to resolve this; pass it on.
+                        continue;
                     }
+
+                    resolvingPlaceholderIterator.remove();
+
+                    resolverResult.forEach((resolvedName, resolvedValue) ->
+                        resolvedValue.map(conclusionValue -> finalisedPlaceholders
+                                .put(resolvedName, conclusionValue.value()),
+                            continuanceValue -> resolvingPlaceholders.put(resolvedName, continuanceValue)));
+
+                    continue dancing;
                 }
 
                 throw new UnfinishedPlaceholderException(moonshineMethod, continuancePlaceholderName, value);
@@ -150,4 +141,67 @@ public final class StandardPlaceholderResolverStrategyButDifferent<R, I, F> impl
         }
     }
 
+    /**
+     * Get the resolvers to try for a type, the type itself first, then its supertypes, each in order of weight.
+     *
+     * @param moonshine the moonshine instance
+     * @param type      the type to resolve
+     * @return resolvers
+     */
+    private List<IPlaceholderResolver<R, Object, ? extends F>> resolverChain(final Moonshine<R, I, ?, F> moonshine, final Type type) {
+        final @Nullable List<IPlaceholderResolver<R, Object, ? extends F>> cached = this.resolverChains.get(type);
+        if (cached != null) {
+            return cached;
+        }
+
+        final var weightedPlaceholderResolvers = moonshine.weightedPlaceholderResolvers();
+        final List<IPlaceholderResolver<R, Object, ? extends F>> chain = new ArrayList<>();
+        final Iterator<Type> hierarchyIterator =
+            new PrefixedDelegateIterator<>(type, this.supertypeStrategy.hierarchyIterator(type));
+        while (hierarchyIterator.hasNext()) {
+            for (final var weighted : weightedPlaceholderResolvers.getOrDefault(hierarchyIterator.next(), emptyNavigableSet())) {
+                @SuppressWarnings("unchecked") // This should be equivalent.
+                final var placeholderResolver = (IPlaceholderResolver<R, Object, ? extends F>) weighted.value();
+                chain.add(placeholderResolver);
+            }
+        }
+
+        final List<IPlaceholderResolver<R, Object, ? extends F>> immutableChain = List.copyOf(chain);
+        this.resolverChains.put(type, immutableChain);
+        return immutableChain;
+    }
+
+    /**
+     * The reflected details of a message method's parameters.
+     */
+    private static final class MethodPlan {
+
+        private final String[] placeholderNames;
+        private final Type[] exactParameterTypes;
+        // Per parameter, the exact type for each concrete class passed to it
+        private final List<Map<Class<?>, Type>> exactSubTypes;
+
+        private MethodPlan(final Method method, final Type proxiedType) {
+            final Parameter[] parameters = method.getParameters();
+            this.placeholderNames = new String[parameters.length];
+            this.exactParameterTypes = GenericTypeReflector.getParameterTypes(method, proxiedType);
+            this.exactSubTypes = new ArrayList<>(parameters.length);
+
+            for (int idx = 0; idx < parameters.length; ++idx) {
+                final @Nullable Placeholder placeholder = parameters[idx].getAnnotation(Placeholder.class);
+
+                this.placeholderNames[idx] = (placeholder != null && !placeholder.value().isEmpty())
+                    ? placeholder.value()
+                    : parameters[idx].getName();
+                this.exactSubTypes.add(new ConcurrentHashMap<>(1));
+            }
+        }
+
+        private Type exactSubType(final int idx, final Class<?> valueClass) {
+            return this.exactSubTypes.get(idx).computeIfAbsent(valueClass,
+                $ -> GenericTypeReflector.getExactSubType(this.exactParameterTypes[idx], valueClass));
+        }
+
+    }
+
 }
@@ -66,14 +66,15 @@ public final class CarbonChatPacketHandler extends AbstractMessagingHandler {
             return false;
         }
 
-        final CarbonPlayer sender = this.carbonChat.userManager().user(messagePacket.userId()).join();
-
+        // Checked first, messages for channels this server doesn't have are dropped without loading the sender
         final @Nullable ChatChannel channel = this.carbonChat.channelRegistry().channel(messagePacket.channelKey());
 
         if (channel == null) {
             return false;
         }
 
+        final CarbonPlayer sender = this.carbonChat.userManager().user(messagePacket.userId()).join();
+
         final List<KeyedRenderer> renderers = new ArrayList<>();
 
         final List<Audience> recipients = channel.recipients(sender);
@@ -23,8 +23,10 @@ import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import java.io.File;
 import java.io.IOException;
+import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -36,6 +38,7 @@ import net.draycia.carbon.common.config.ConfigFactory;
 import net.draycia.carbon.common.config.MessagingSettings;
 import net.draycia.carbon.common.listeners.PingHandler;
 import net.draycia.carbon.common.messaging.packets.ChatMessagePacket;
+import net.draycia.carbon.common.messaging.packets.PacketEncoding;
 import net.draycia.carbon.common.messaging.packets.SaveCompletedPacket;
 import net.draycia.carbon.common.users.UserManagerInternal;
 import net.draycia.carbon.common.util.ConcurrentUtil;
@@ -67,11 +70,13 @@ import org.jetbrains.annotations.NotNull;
 @DefaultQualifier(NonNull.class)
 public class MessagingManager {
 
-    private static final byte protocolVersion = 0;
+    // See PacketEncoding for what each version added
+    private static final byte protocolVersion = PacketEncoding.SIZED_COMPONENTS_VERSION;
 
     private final CarbonChat carbonChat;
     private final @MonotonicNonNull ScheduledExecutorService executorService;
     private final @MonotonicNonNull PacketService packetService;
+    private final @MonotonicNonNull PacketBatcher batcher;
     private @MonotonicNonNull MessagingService messagingService;
 
     @Inject
@@ -88,28 +93,27 @@ public class MessagingManager {
             }
             this.messagingService = EMPTY_MESSAGING_SERVICE;
             this.packetService = null;
+            this.batcher = null;
             this.carbonChat = carbonChat;
             this.executorService = null;
             return;
         }
 
-        PacketManager.register(MultiPacket.class, MultiPacket::new);
-        PacketManager.register(KeepAlivePacket.class, KeepAlivePacket::new);
-        PacketManager.register(InitializationPacket.class, InitializationPacket::new);
-        PacketManager.register(PacketVersionPacket.class, PacketVersionPacket::new);
-        PacketManager.register(PacketVersionRequestPacket.class, PacketVersionRequestPacket::new);
-        PacketManager.register(ShutdownPacket.class, ShutdownPacket::new);
-        //PacketManager.register(HeartbeatPacket.class, HeartbeatPacket::new);
-        PacketManager.register(ChatMessagePacket.class, ChatMessagePacket::new);
-        PacketManager.register(SaveCompletedPacket.class, SaveCompletedPacket::new);
+        registerPackets();
 
+        PacketEncoding.compressionThreshold(configFactory.primaryConfig().messagingSettings().compressionThreshold());
         this.packetService = new PacketService(4, false, protocolVersion);
         this.executorService = new ExceptionLoggingScheduledThreadPoolExecutor(10,
             ConcurrentUtil.carbonThreadFactory(carbonChat.logger(), "MessagingManager"), carbonChat.logger());
         this.carbonChat = carbonChat;
 
+        final MessagingSettings settings = configFactory.primaryConfig().messagingSettings();
+        this.batcher = new PacketBatcher(this.packetService, this.executorService,
+            settings.maxBatchDelay(), TimeUnit.MILLISECONDS, settings.maxBatchSize());
+
         final MessagingHandlerImpl handlerImpl = new MessagingHandlerImpl(this.packetService);
-        handlerImpl.addHandler(new CarbonServerHandler(carbonChat.serverId(), this.packetService, handlerImpl));
+        final CarbonServerHandler serverHandler = new CarbonServerHandler(carbonChat.serverId(), this.packetService, handlerImpl);
+        handlerImpl.addHandler(serverHandler);
         handlerImpl.addHandler(new CarbonChatPacketHandler(carbonChat, this, userManager));
 
         try {
@@ -127,23 +131,30 @@ public class MessagingManager {
 
         // Broadcast keepalive packets
         this.executorService.scheduleAtFixedRate(() -> {
-            this.packetService.queuePacket(new KeepAlivePacket(carbonChat.serverId()));
-            this.packetService.flushQueue();
+            this.batcher.queue(new KeepAlivePacket(carbonChat.serverId()));
         }, 5, 5, TimeUnit.SECONDS);
+        this.executorService.scheduleAtFixedRate(serverHandler::expirePeers, 5, 5, TimeUnit.SECONDS);
 
-        this.executorService.scheduleAtFixedRate(() -> {
-            try {
-                this.packetService.flushQueue();
-            } catch (final IndexOutOfBoundsException ignored) {
-
-            }
-        }, 0, 1, TimeUnit.SECONDS);
+        // Packets queued on the packet service directly bypass the batcher
+        this.executorService.scheduleAtFixedRate(this.batcher::flush, 0, 1, TimeUnit.SECONDS);
 
         carbonChat.eventHandler().subscribe(CarbonShutdownEvent.class, 0, false, event -> {
             this.onShutdown();
         });
     }
 
+    static void registerPackets() {
+        PacketManager.register(MultiPacket.class, MultiPacket::new);
+        PacketManager.register(KeepAlivePacket.class, KeepAlivePacket::new);
+        PacketManager.register(InitializationPacket.class, InitializationPacket::new);
+        PacketManager.register(PacketVersionPacket.class, PacketVersionPacket::new);
+        PacketManager.register(PacketVersionRequestPacket.class, PacketVersionRequestPacket::new);
+        PacketManager.register(ShutdownPacket.class, ShutdownPacket::new);
+        //PacketManager.register(HeartbeatPacket.class, HeartbeatPacket::new);
+        PacketManager.register(ChatMessagePacket.class, ChatMessagePacket::new);
+        PacketManager.register(SaveCompletedPacket.class, SaveCompletedPacket::new);
+    }
+
     public @Nullable PacketService packetService() {
         return this.packetService;
     }
@@ -152,6 +163,21 @@ public class MessagingManager {
         return Objects.requireNonNull(this.packetService, "packetService");
     }
 
+    public @Nullable PacketBatcher batcher() {
+        return this.batcher;
+    }
+
+    /**
+     * Queue a packet to be sent with the next batch. Does nothing if messaging is disabled.
+     *
+     * @param packet packet
+     */
+    public void queuePacket(final Packet packet) {
+        if (this.batcher != null) {
+            this.batcher.queue(packet);
+        }
+    }
+
     public void withPacketService(final Consumer<PacketService> consumer) {
         if (this.packetService != null) {
             consumer.accept(this.packetService);
@@ -229,14 +255,83 @@ public class MessagingManager {
         REDIS,
     }
 
-    private static final class CarbonServerHandler extends AbstractServerMessagingHandler {
+    static final class CarbonServerHandler extends AbstractServerMessagingHandler {
+
+        // Keepalives are sent every 5 seconds, peers that missed several no longer hold back the encoding
+        private static final long PEER_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(30);
+        // Versions of silent peers are kept a while longer, in case they come back without announcing again
+        private static final long PEER_RETENTION_NANOS = TimeUnit.MINUTES.toNanos(10);
 
-        private CarbonServerHandler(
+        private final UUID serverId;
+        private final Map<UUID, Peer> peers = new ConcurrentHashMap<>();
+
+        CarbonServerHandler(
             final @NotNull UUID serverId,
             final @NotNull PacketService packetService,
             final @NotNull MessagingHandler messagingHandler
         ) {
             super(serverId, packetService, messagingHandler);
+            this.serverId = serverId;
+        }
+
+        @Override
+        protected boolean handlePacket(final @NotNull Packet packet) {
+            if (packet instanceof InitializationPacket initialization) {
+                this.peerVersion(initialization.getServer(), initialization.getPacketVersion());
+            } else if (packet instanceof PacketVersionPacket version) {
+                this.peerVersion(version.getServer(), version.getPacketVersion());
+            } else if (packet instanceof ShutdownPacket shutdown) {
+                this.peers.remove(shutdown.getServer());
+                this.updateEncoding();
+            } else {
+                this.seen(packet.getSender());
+            }
+
+            return super.handlePacket(packet);
+        }
+
+        private void peerVersion(final UUID server, final byte version) {
+            if (server.equals(this.serverId)) {
+                return;
+            }
+            this.peers.put(server, new Peer(version, System.nanoTime()));
+            this.updateEncoding();
+        }
+
+        private void seen(final UUID server) {
+            final @Nullable Peer peer = this.peers.get(server);
+            if (peer == null) {
+                return;
+            }
+
+            final long now = System.nanoTime();
+            this.peers.put(server, new Peer(peer.version(), now));
+            if (now - peer.lastSeen() >= PEER_TIMEOUT_NANOS) {
+                this.updateEncoding();
+            }
+        }
+
+        boolean knows(final UUID server) {
+            return this.peers.containsKey(server);
+        }
+
+        void expirePeers() {
+            final long now = System.nanoTime();
+            this.peers.values().removeIf(peer -> now - peer.lastSeen() >= PEER_RETENTION_NANOS);
+            this.updateEncoding();
+        }
+
+        // Packets are broadcast, so new encodings are only used once every live server has announced support
+        private void updateEncoding() {
+            final long now = System.nanoTime();
+            PacketEncoding.peerProtocolVersion(this.peers.values().stream()
+                .filter(peer -> now - peer.lastSeen() < PEER_TIMEOUT_NANOS)
+                .mapToInt(Peer::version)
+                .min()
+                .orElse(0));
+        }
+
+        private record Peer(byte version, long lastSeen) {
         }
 
     }
@@ -0,0 +1,124 @@
+/*
+ * CarbonChat
+ *
+ * Copyright (c) 2023 Josua Parks (Vicarious)
+ *                    Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.draycia.carbon.common.messaging;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import net.draycia.carbon.common.util.Histogram;
+import ninja.egg82.messenger.packets.Packet;
+import ninja.egg82.messenger.services.PacketService;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.framework.qual.DefaultQualifier;
+
+/**
+ * Queues packets and flushes them together, once the oldest has waited the maximum delay or enough are waiting.
+ */
+@DefaultQualifier(NonNull.class)
+public final class PacketBatcher {
+
+    private final PacketService packetService;
+    private final ScheduledExecutorService executor;
+    private final long maxDelayNanos;
+    private final int maxBatchSize;
+    private final Histogram batchSizes = new Histogram(1, 2, 4, 8, 16, 32, 64, 128, 256);
+    private final Histogram queueMillis = new Histogram(1, 2, 5, 10, 20, 50, 100, 200, 500, 1000);
+
+    private final Object lock = new Object();
+    private int pending;
+    private long oldestQueued;
+    private @Nullable ScheduledFuture<?> scheduledFlush;
+
+    PacketBatcher(
+        final PacketService packetService,
+        final ScheduledExecutorService executor,
+        final long maxDelay,
+        final TimeUnit unit,
+        final int maxBatchSize
+    ) {
+        this.packetService = packetService;
+        this.executor = executor;
+        this.maxDelayNanos = unit.toNanos(maxDelay);
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public void queue(final Packet packet) {
+        final boolean flushNow;
+        synchronized (this.lock) {
+            this.packetService.queuePacket(packet);
+            if (this.pending++ == 0) {
+                this.oldestQueued = System.nanoTime();
+            }
+
+            flushNow = this.pending >= this.maxBatchSize || this.maxDelayNanos <= 0;
+            if (!flushNow && this.scheduledFlush == null) {
+                this.scheduledFlush = this.executor.schedule(this::flush, this.maxDelayNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        if (flushNow) {
+            this.executor.execute(this::flush);
+        }
+    }
+
+    /**
+     * Send everything queued now.
+     */
+    public void flush() {
+        final int batchSize;
+        final long queuedAt;
+        synchronized (this.lock) {
+            if (this.scheduledFlush != null) {
+                this.scheduledFlush.cancel(false);
+                this.scheduledFlush = null;
+            }
+            batchSize = this.pending;
+            queuedAt = this.oldestQueued;
+            this.pending = 0;
+        }
+
+        // Also sends anything queued on the packet service directly
+        try {
+            this.packetService.flushQueue();
+        } catch (final IndexOutOfBoundsException ignored) {
+
+        }
+
+        if (batchSize > 0) {
+            this.batchSizes.record(batchSize);
+            this.queueMillis.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - queuedAt));
+        }
+    }
+
+    public Histogram batchSizes() {
+        return this.batchSizes;
+    }
+
+    /**
+     * Get how long the oldest packet of each batch waited before being sent.
+     *
+     * @return queue time histogram, in milliseconds
+     */
+    public Histogram queueMillis() {
+        return this.queueMillis;
+    }
+
+}
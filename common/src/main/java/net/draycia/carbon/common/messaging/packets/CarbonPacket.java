@@ -19,31 +19,96 @@
  */
 package net.draycia.carbon.common.messaging.packets;
 
+import com.google.common.base.Suppliers;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.function.Supplier;
 import net.kyori.adventure.key.Key;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.serializer.gson.GsonComponentSerializer;
 import ninja.egg82.messenger.packets.AbstractPacket;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.intellij.lang.annotations.Subst;
 import org.jetbrains.annotations.NotNull;
 
 public abstract class CarbonPacket extends AbstractPacket {
 
+    // Follow the zero length of binary components, where the binary codec would have its version
+    private static final byte COMPRESSED = 0;
+    private static final byte SIZED = -1;
+
     private final GsonComponentSerializer componentSerializer = GsonComponentSerializer.gson();
 
     protected CarbonPacket(final @NotNull UUID sender) {
         super(sender);
     }
 
+    // Binary components are prefixed with a zero length, which serialized JSON never has
     protected final void writeComponent(final Component component, final ByteBuf buffer) {
-        this.writeString(this.componentSerializer.serialize(component), buffer);
+        if (!PacketEncoding.binaryComponents()) {
+            this.writeString(this.componentSerializer.serialize(component), buffer);
+            return;
+        }
+
+        this.writeVarInt(0, buffer);
+        final ByteBuf encoded = Unpooled.buffer();
+        ComponentCodec.write(component, encoded);
+
+        final int length = encoded.readableBytes();
+        if (PacketEncoding.compress(length)) {
+            final byte @Nullable [] compressed = PacketEncoding.deflate(ByteBufUtil.getBytes(encoded));
+            if (compressed != null) {
+                buffer.writeByte(COMPRESSED);
+                this.writeVarInt(length, buffer);
+                this.writeVarInt(compressed.length, buffer);
+                buffer.writeBytes(compressed);
+                return;
+            }
+        }
+
+        if (PacketEncoding.sizedComponents()) {
+            buffer.writeByte(SIZED);
+            this.writeVarInt(length, buffer);
+        }
+        buffer.writeBytes(encoded);
     }
 
     protected final Component readComponent(final ByteBuf buffer) {
-        return this.componentSerializer.deserialize(this.readString(buffer));
+        return this.readLazyComponent(buffer).get();
+    }
+
+    // Components are skipped without decoding them, which happens on first use instead.
+    // Binary components from servers before SIZED_COMPONENTS_VERSION have no length, so they are decoded right away
+    protected final Supplier<Component> readLazyComponent(final ByteBuf buffer) {
+        final int start = buffer.readerIndex();
+        if (this.readVarInt(buffer) != 0) {
+            buffer.readerIndex(start);
+            final String json = this.readString(buffer);
+            return Suppliers.memoize(() -> this.componentSerializer.deserialize(json));
+        }
+
+        final byte marker = buffer.getByte(buffer.readerIndex());
+        if (marker == SIZED) {
+            buffer.skipBytes(1);
+            final byte[] encoded = new byte[this.readVarInt(buffer)];
+            buffer.readBytes(encoded);
+            return Suppliers.memoize(() -> ComponentCodec.read(Unpooled.wrappedBuffer(encoded)));
+        }
+
+        if (marker != COMPRESSED) {
+            final Component component = ComponentCodec.read(buffer);
+            return () -> component;
+        }
+
+        buffer.skipBytes(1);
+        final int length = this.readVarInt(buffer);
+        final byte[] compressed = new byte[this.readVarInt(buffer)];
+        buffer.readBytes(compressed);
+        return Suppliers.memoize(() -> ComponentCodec.read(Unpooled.wrappedBuffer(PacketEncoding.inflate(compressed, length))));
     }
 
     protected final void writeKey(final Key key, final ByteBuf buffer) {
@@ -21,6 +21,7 @@ package net.draycia.carbon.common.messaging.packets;
 
 import io.netty.buffer.ByteBuf;
 import java.util.UUID;
+import java.util.function.Supplier;
 import net.kyori.adventure.key.Key;
 import net.kyori.adventure.text.Component;
 import ninja.egg82.messenger.utils.UUIDUtil;
@@ -33,7 +34,9 @@ public final class ChatMessagePacket extends CarbonPacket {
     private String channelPermission;
     private Key channelKey;
     private String username;
-    private Component message;
+    // Decoded on first use, so messages for channels this server doesn't have are never decoded.
+    // Only uncompressed binary messages from servers before SIZED_COMPONENTS_VERSION are decoded when read
+    private Supplier<Component> message;
 
     public UUID userId() {
         return this.userId;
@@ -52,7 +55,7 @@ public final class ChatMessagePacket extends CarbonPacket {
     }
 
     public Component message() {
-        return this.message;
+        return this.message.get();
     }
 
     public ChatMessagePacket(final @NotNull UUID sender, final @NotNull ByteBuf data) {
@@ -77,7 +80,7 @@ public final class ChatMessagePacket extends CarbonPacket {
         this.channelPermission = channelPermission;
         this.channelKey = channelKey;
         this.username = username;
-        this.message = message;
+        this.message = () -> message;
     }
 
     @Override
@@ -86,7 +89,7 @@ public final class ChatMessagePacket extends CarbonPacket {
         this.channelPermission = this.readString(buffer);
         this.channelKey = this.readKey(buffer);
         this.username = this.readString(buffer);
-        this.message = this.readComponent(buffer);
+        this.message = this.readLazyComponent(buffer);
     }
 
     @Override
@@ -95,7 +98,7 @@ public final class ChatMessagePacket extends CarbonPacket {
         this.writeString(this.channelPermission, buffer);
         this.writeKey(this.channelKey, buffer);
         this.writeString(this.username, buffer);
-        this.writeComponent(this.message, buffer);
+        this.writeComponent(this.message(), buffer);
     }
 
 }
@@ -0,0 +1,354 @@
+/*
+ * CarbonChat
+ *
+ * Copyright (c) 2023 Josua Parks (Vicarious)
+ *                    Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.draycia.carbon.common.messaging.packets;
+
+import io.netty.buffer.ByteBuf;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import net.kyori.adventure.key.Key;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.KeybindComponent;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.TranslatableComponent;
+import net.kyori.adventure.text.event.ClickEvent;
+import net.kyori.adventure.text.event.HoverEvent;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.format.Style;
+import net.kyori.adventure.text.format.TextColor;
+import net.kyori.adventure.text.format.TextDecoration;
+import net.kyori.adventure.text.serializer.gson.GsonComponentSerializer;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.framework.qual.DefaultQualifier;
+import org.intellij.lang.annotations.Subst;
+
+/**
+ * Binary encoding of components for packets, smaller and faster to read than JSON.
+ *
+ * <p>Strings and styles are written once each, in tables at the start, and referenced by index from
+ * the component tree. Component types and hover events without a binary form are embedded as JSON.</p>
+ */
+@DefaultQualifier(NonNull.class)
+final class ComponentCodec {
+
+    static final byte VERSION = 1;
+
+    private static final int NODE_TEXT = 0;
+    private static final int NODE_TRANSLATABLE = 1;
+    private static final int NODE_KEYBIND = 2;
+    private static final int NODE_JSON = 3;
+
+    private static final int STYLE_COLOR = 1;
+    private static final int STYLE_FONT = 1 << 1;
+    private static final int STYLE_INSERTION = 1 << 2;
+    private static final int STYLE_CLICK = 1 << 3;
+    // Two bits per decoration follow: not set, false, true
+    private static final int STYLE_DECORATIONS_SHIFT = 4;
+
+    private static final TextDecoration[] DECORATIONS = TextDecoration.values();
+    private static final TextDecoration.State[] DECORATION_STATES = TextDecoration.State.values();
+    private static final ClickEvent.Action[] CLICK_ACTIONS = ClickEvent.Action.values();
+
+    private ComponentCodec() {
+    }
+
+    static void write(final Component component, final ByteBuf buffer) {
+        final Tables tables = new Tables();
+        tables.collect(component);
+
+        buffer.writeByte(VERSION);
+        writeVarInt(tables.strings.size(), buffer);
+        for (final String string : tables.strings) {
+            writeString(string, buffer);
+        }
+        writeVarInt(tables.styles.size(), buffer);
+        for (final Style style : tables.styles) {
+            writeStyle(style, tables, buffer);
+        }
+        writeNode(component, tables, buffer);
+    }
+
+    static Component read(final ByteBuf buffer) {
+        final byte version = buffer.readByte();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported component encoding version " + version);
+        }
+
+        final String[] strings = new String[readVarInt(buffer)];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = readString(buffer);
+        }
+        final Style[] styles = new Style[readVarInt(buffer)];
+        for (int i = 0; i < styles.length; i++) {
+            styles[i] = readStyle(strings, buffer);
+        }
+        return readNode(strings, styles, buffer);
+    }
+
+    private static void writeNode(final Component component, final Tables tables, final ByteBuf buffer) {
+        if (!binary(component)) {
+            writeVarInt(NODE_JSON, buffer);
+            writeVarInt(tables.string(GsonComponentSerializer.gson().serialize(component)), buffer);
+            return;
+        }
+
+        if (component instanceof TextComponent text) {
+            writeVarInt(NODE_TEXT, buffer);
+            writeVarInt(tables.string(text.content()), buffer);
+        } else if (component instanceof TranslatableComponent translatable) {
+            writeVarInt(NODE_TRANSLATABLE, buffer);
+            writeVarInt(tables.string(translatable.key()), buffer);
+            writeNullableString(translatable.fallback(), tables, buffer);
+            writeVarInt(translatable.args().size(), buffer);
+            for (final Component argument : translatable.args()) {
+                writeNode(argument, tables, buffer);
+            }
+        } else if (component instanceof KeybindComponent keybind) {
+            writeVarInt(NODE_KEYBIND, buffer);
+            writeVarInt(tables.string(keybind.keybind()), buffer);
+        }
+
+        writeVarInt(tables.style(component.style()), buffer);
+        final @Nullable HoverEvent<?> hoverEvent = component.hoverEvent();
+        buffer.writeBoolean(hoverEvent != null);
+        if (hoverEvent != null) {
+            writeNode((Component) hoverEvent.value(), tables, buffer);
+        }
+
+        writeVarInt(component.children().size(), buffer);
+        for (final Component child : component.children()) {
+            writeNode(child, tables, buffer);
+        }
+    }
+
+    private static Component readNode(final String[] strings, final Style[] styles, final ByteBuf buffer) {
+        final int type = readVarInt(buffer);
+        if (type == NODE_JSON) {
+            return GsonComponentSerializer.gson().deserialize(strings[readVarInt(buffer)]);
+        }
+
+        Component component = switch (type) {
+            case NODE_TEXT -> Component.text(strings[readVarInt(buffer)]);
+            case NODE_TRANSLATABLE -> {
+                final String key = strings[readVarInt(buffer)];
+                final @Nullable String fallback = readNullableString(strings, buffer);
+                final List<Component> arguments = new ArrayList<>();
+                for (int i = readVarInt(buffer); i > 0; i--) {
+                    arguments.add(readNode(strings, styles, buffer));
+                }
+                yield Component.translatable(key, fallback, arguments);
+            }
+            case NODE_KEYBIND -> Component.keybind(strings[readVarInt(buffer)]);
+            default -> throw new IllegalArgumentException("Unknown component node type " + type);
+        };
+
+        component = component.style(styles[readVarInt(buffer)]);
+        if (buffer.readBoolean()) {
+            component = component.hoverEvent(HoverEvent.showText(readNode(strings, styles, buffer)));
+        }
+
+        final int childCount = readVarInt(buffer);
+        if (childCount > 0) {
+            final List<Component> children = new ArrayList<>(childCount);
+            for (int i = 0; i < childCount; i++) {
+                children.add(readNode(strings, styles, buffer));
+            }
+            component = component.children(children);
+        }
+
+        return component;
+    }
+
+    private static boolean binary(final Component component) {
+        if (!(component instanceof TextComponent || component instanceof TranslatableComponent || component instanceof KeybindComponent)) {
+            return false;
+        }
+
+        final @Nullable HoverEvent<?> hoverEvent = component.hoverEvent();
+        return hoverEvent == null || hoverEvent.action() == HoverEvent.Action.SHOW_TEXT;
+    }
+
+    private static void writeStyle(final Style style, final Tables tables, final ByteBuf buffer) {
+        final @Nullable TextColor color = style.color();
+        final @Nullable Key font = style.font();
+        final @Nullable String insertion = style.insertion();
+        final @Nullable ClickEvent clickEvent = style.clickEvent();
+
+        int flags = 0;
+        if (color != null) {
+            flags |= STYLE_COLOR;
+        }
+        if (font != null) {
+            flags |= STYLE_FONT;
+        }
+        if (insertion != null) {
+            flags |= STYLE_INSERTION;
+        }
+        if (clickEvent != null) {
+            flags |= STYLE_CLICK;
+        }
+        for (int i = 0; i < DECORATIONS.length; i++) {
+            flags |= style.decoration(DECORATIONS[i]).ordinal() << (STYLE_DECORATIONS_SHIFT + i * 2);
+        }
+
+        writeVarInt(flags, buffer);
+        if (color != null) {
+            buffer.writeMedium(color.value());
+        }
+        if (font != null) {
+            writeVarInt(tables.string(font.asString()), buffer);
+        }
+        if (insertion != null) {
+            writeVarInt(tables.string(insertion), buffer);
+        }
+        if (clickEvent != null) {
+            writeVarInt(clickEvent.action().ordinal(), buffer);
+            writeVarInt(tables.string(clickEvent.value()), buffer);
+        }
+    }
+
+    private static Style readStyle(final String[] strings, final ByteBuf buffer) {
+        final int flags = readVarInt(buffer);
+        final Style.Builder style = Style.style();
+
+        if ((flags & STYLE_COLOR) != 0) {
+            style.color(color(buffer.readUnsignedMedium()));
+        }
+        if ((flags & STYLE_FONT) != 0) {
+            final @Subst("minecraft:default") String font = strings[readVarInt(buffer)];
+            style.font(Key.key(font));
+        }
+        if ((flags & STYLE_INSERTION) != 0) {
+            style.insertion(strings[readVarInt(buffer)]);
+        }
+        if ((flags & STYLE_CLICK) != 0) {
+            final ClickEvent.Action action = CLICK_ACTIONS[readVarInt(buffer)];
+            style.clickEvent(ClickEvent.clickEvent(action, strings[readVarInt(buffer)]));
+        }
+        for (int i = 0; i < DECORATIONS.length; i++) {
+            style.decoration(DECORATIONS[i], DECORATION_STATES[(flags >>> (STYLE_DECORATIONS_SHIFT + i * 2)) & 3]);
+        }
+
+        return style.build();
+    }
+
+    private static TextColor color(final int value) {
+        // Named colors are only written as their value, keep them named so they serialize the same
+        final @Nullable NamedTextColor named = NamedTextColor.namedColor(value);
+        return named != null ? named : TextColor.color(value);
+    }
+
+    private static void writeNullableString(final @Nullable String value, final Tables tables, final ByteBuf buffer) {
+        // Index + 1, with 0 for null
+        writeVarInt(value == null ? 0 : tables.string(value) + 1, buffer);
+    }
+
+    private static @Nullable String readNullableString(final String[] strings, final ByteBuf buffer) {
+        final int index = readVarInt(buffer);
+        return index == 0 ? null : strings[index - 1];
+    }
+
+    private static void writeString(final String value, final ByteBuf buffer) {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(bytes.length, buffer);
+        buffer.writeBytes(bytes);
+    }
+
+    private static String readString(final ByteBuf buffer) {
+        final int length = readVarInt(buffer);
+        final String value = buffer.toString(buffer.readerIndex(), length, StandardCharsets.UTF_8);
+        buffer.skipBytes(length);
+        return value;
+    }
+
+    private static void writeVarInt(final int value, final ByteBuf buffer) {
+        int remaining = value;
+        while ((remaining & ~0x7F) != 0) {
+            buffer.writeByte((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        buffer.writeByte(remaining);
+    }
+
+    private static int readVarInt(final ByteBuf buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            final byte b = buffer.readByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("VarInt too long");
+    }
+
+    /**
+     * The strings and styles of a component, in order of first use.
+     */
+    private static final class Tables {
+
+        private final List<String> strings = new ArrayList<>();
+        private final Map<String, Integer> stringIndexes = new HashMap<>();
+        private final List<Style> styles = new ArrayList<>();
+        private final Map<Style, Integer> styleIndexes = new HashMap<>();
+
+        private void collect(final Component component) {
+            if (!binary(component)) {
+                this.string(GsonComponentSerializer.gson().serialize(component));
+                return;
+            }
+
+            this.style(component.style());
+            final @Nullable HoverEvent<?> hoverEvent = component.hoverEvent();
+            if (hoverEvent != null) {
+                this.collect((Component) hoverEvent.value());
+            }
+            if (component instanceof TranslatableComponent translatable) {
+                for (final Component argument : translatable.args()) {
+                    this.collect(argument);
+                }
+            }
+            for (final Component child : component.children()) {
+                this.collect(child);
+            }
+        }
+
+        private int string(final String value) {
+            return this.stringIndexes.computeIfAbsent(value, $ -> {
+                this.strings.add(value);
+                return this.strings.size() - 1;
+            });
+        }
+
+        // Hover text is written with each component rather than in the table
+        private int style(final Style style) {
+            final Style key = style.hoverEvent() == null ? style : style.hoverEvent(null);
+            return this.styleIndexes.computeIfAbsent(key, $ -> {
+                this.styles.add(key);
+                return this.styles.size() - 1;
+            });
+        }
+
+    }
+
+}
@@ -0,0 +1,187 @@
+/*
+ * CarbonChat
+ *
+ * Copyright (c) 2023 Josua Parks (Vicarious)
+ *                    Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.draycia.carbon.common.messaging.packets;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.framework.qual.DefaultQualifier;
+
+/**
+ * Packet encoding options agreed on with the other servers, and compression of packet payloads.
+ *
+ * <p>Packets are created by the messenger library rather than injected, so this state is static.</p>
+ */
+@DefaultQualifier(NonNull.class)
+public final class PacketEncoding {
+
+    public static final int BINARY_COMPONENTS_VERSION = 1;
+    public static final int COMPRESSION_VERSION = 2;
+    public static final int SIZED_COMPONENTS_VERSION = 3;
+
+    // Common fragments of component payloads, most useful at the end. Changing this needs a new protocol version
+    private static final byte[] DICTIONARY = String.join("",
+        "{\"text\":\"\",\"extra\":[", "\"italic\":false,", "\"bold\":true,", "\"color\":\"gray\"", "\"color\":\"#",
+        "{\"translate\":\"", "\"with\":[", "\"clickEvent\":{\"action\":\"suggest_command\",\"value\":\"/msg ",
+        "\"clickEvent\":{\"action\":\"open_url\",\"value\":\"https://",
+        "Enchantments:[{id:\"minecraft:", "lvl:", "s},{id:\"minecraft:", "Damage:", "Unbreakable:1b",
+        "display:{Name:'{\"text\":\"", "Lore:['{\"text\":\"", "\"tag\":\"{",
+        "enchantment.minecraft.", "enchantment.level.", "block.minecraft.", "item.minecraft.",
+        "\"hoverEvent\":{\"action\":\"show_text\",\"contents\":",
+        "{\"hoverEvent\":{\"action\":\"show_item\",\"contents\":{\"id\":\"minecraft:", "\"count\":1,",
+        "\"text\":\"[\"},{\"text\":\"]\"}", "minecraft:", "carbon:"
+    ).getBytes(StandardCharsets.UTF_8);
+
+    private static final ThreadLocal<Deflater> DEFLATERS = ThreadLocal.withInitial(Deflater::new);
+    private static final ThreadLocal<Inflater> INFLATERS = ThreadLocal.withInitial(Inflater::new);
+
+    private static volatile int peerProtocolVersion = 0;
+    private static volatile int compressionThreshold = 0;
+
+    private static final LongAdder compressedPayloads = new LongAdder();
+    private static final LongAdder uncompressedBytes = new LongAdder();
+    private static final LongAdder compressedBytes = new LongAdder();
+    private static final LongAdder compressionNanos = new LongAdder();
+    private static final LongAdder decompressionNanos = new LongAdder();
+
+    private PacketEncoding() {
+    }
+
+    /**
+     * Set the lowest protocol version among the other known servers, 0 if there are none.
+     *
+     * @param version protocol version
+     */
+    public static void peerProtocolVersion(final int version) {
+        peerProtocolVersion = version;
+    }
+
+    /**
+     * Set the size in bytes from which payloads are compressed, 0 to disable compression.
+     *
+     * @param threshold compression threshold
+     */
+    public static void compressionThreshold(final int threshold) {
+        compressionThreshold = threshold;
+    }
+
+    static boolean binaryComponents() {
+        return peerProtocolVersion >= BINARY_COMPONENTS_VERSION;
+    }
+
+    static boolean sizedComponents() {
+        return peerProtocolVersion >= SIZED_COMPONENTS_VERSION;
+    }
+
+    static boolean compress(final int size) {
+        final int threshold = compressionThreshold;
+        return threshold > 0 && size >= threshold && peerProtocolVersion >= COMPRESSION_VERSION;
+    }
+
+    /**
+     * Deflate a payload with the shared dictionary.
+     *
+     * @param payload payload
+     * @return compressed payload, or null if it did not get smaller
+     */
+    static byte @Nullable [] deflate(final byte[] payload) {
+        final long start = System.nanoTime();
+        final Deflater deflater = DEFLATERS.get();
+        deflater.reset();
+        deflater.setDictionary(DICTIONARY);
+        deflater.setInput(payload);
+        deflater.finish();
+
+        final ByteArrayOutputStream output = new ByteArrayOutputStream(payload.length);
+        final byte[] chunk = new byte[Math.min(payload.length, 8192)];
+        while (!deflater.finished() && output.size() < payload.length) {
+            output.write(chunk, 0, deflater.deflate(chunk));
+        }
+        final byte[] compressed = output.toByteArray();
+
+        compressedPayloads.increment();
+        uncompressedBytes.add(payload.length);
+        compressedBytes.add(Math.min(compressed.length, payload.length));
+        compressionNanos.add(System.nanoTime() - start);
+
+        return deflater.finished() && compressed.length < payload.length ? compressed : null;
+    }
+
+    static byte[] inflate(final byte[] compressed, final int length) {
+        final long start = System.nanoTime();
+        final Inflater inflater = INFLATERS.get();
+        inflater.reset();
+        inflater.setInput(compressed);
+
+        final byte[] payload = new byte[length];
+        try {
+            int read = inflater.inflate(payload);
+            if (inflater.needsDictionary()) {
+                inflater.setDictionary(DICTIONARY);
+                read = inflater.inflate(payload);
+            }
+            while (read < length && !inflater.finished()) {
+                final int inflated = inflater.inflate(payload, read, length - read);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                read += inflated;
+            }
+            if (read != length) {
+                throw new IllegalArgumentException("Compressed payload is " + read + " bytes, expected " + length);
+            }
+        } catch (final DataFormatException exception) {
+            throw new IllegalArgumentException("Invalid compressed payload", exception);
+        } finally {
+            decompressionNanos.add(System.nanoTime() - start);
+        }
+
+        return payload;
+    }
+
+    public static long compressedPayloads() {
+        return compressedPayloads.sum();
+    }
+
+    /**
+     * Get the compressed size of payloads relative to their original size, for payloads over the threshold.
+     *
+     * @return compression ratio, 1 if nothing has been compressed
+     */
+    public static double compressionRatio() {
+        final long uncompressed = uncompressedBytes.sum();
+        return uncompressed == 0 ? 1 : compressedBytes.sum() / (double) uncompressed;
+    }
+
+    public static double compressionMillis() {
+        return compressionNanos.sum() / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public static double decompressionMillis() {
+        return decompressionNanos.sum() / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+}
@@ -19,23 +19,31 @@
  */
 package net.draycia.carbon.common.users;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
 import com.google.inject.MembersInjector;
 import com.google.inject.Provider;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import net.draycia.carbon.common.config.UserCacheSettings;
 import net.draycia.carbon.common.messaging.MessagingManager;
 import net.draycia.carbon.common.messaging.packets.PacketFactory;
-import net.draycia.carbon.common.users.db.DatabaseUserManager;
-import net.draycia.carbon.common.util.ConcurrentUtil;
+import net.draycia.carbon.common.util.StripedExecutor;
 import org.apache.logging.log4j.Logger;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
@@ -44,48 +52,174 @@ import org.checkerframework.framework.qual.DefaultQualifier;
 @DefaultQualifier(NonNull.class)
 public abstract class CachingUserManager implements UserManagerInternal<CarbonPlayerCommon> {
 
+    private static final int EXECUTOR_STRIPES = 8;
+
     protected final Logger logger;
     protected final ProfileResolver profileResolver;
-    private final ExecutorService executor;
+    // Loads and saves for the same player always run on the same worker, so they can never overtake each other
+    private final StripedExecutor executor;
     private final MembersInjector<CarbonPlayerCommon> playerInjector;
     private final Provider<MessagingManager> messagingManager;
     private final PacketFactory packetFactory;
-    private final ReentrantLock cacheLock;
     private final Map<UUID, CompletableFuture<CarbonPlayerCommon>> cache;
+    // Bounded view over the offline players in the cache above, evicting from it drops them from the cache
+    private final Cache<UUID, CompletableFuture<CarbonPlayerCommon>> offlinePlayers;
 
     protected CachingUserManager(
         final Logger logger,
         final ProfileResolver profileResolver,
         final MembersInjector<CarbonPlayerCommon> playerInjector,
         final Provider<MessagingManager> messagingManager,
-        final PacketFactory packetFactory
+        final PacketFactory packetFactory,
+        final UserCacheSettings cacheSettings
     ) {
         this.logger = logger;
-        this.executor = Executors.newSingleThreadExecutor(ConcurrentUtil.carbonThreadFactory(logger, this.getClass().getSimpleName()));
+        this.executor = new StripedExecutor(logger, this.getClass().getSimpleName(), EXECUTOR_STRIPES);
         this.profileResolver = profileResolver;
         this.playerInjector = playerInjector;
         this.messagingManager = messagingManager;
         this.packetFactory = packetFactory;
-        this.cacheLock = new ReentrantLock();
-        this.cache = new HashMap<>();
+        this.cache = new ConcurrentHashMap<>();
+        this.offlinePlayers = Caffeine.newBuilder()
+            .maximumSize(Math.max(0, cacheSettings.maximumOfflinePlayers()))
+            .expireAfterAccess(Duration.ofSeconds(Math.max(1, cacheSettings.expireOfflinePlayersAfter())))
+            .removalListener(this::offlinePlayerRemoved)
+            .build();
     }
 
     protected abstract CarbonPlayerCommon loadOrCreate(UUID uuid);
 
+    /**
+     * Load or create the given players. Implementations should override this when they can load many players
+     * cheaper than one at a time.
+     *
+     * @param uuids ids of the players to load
+     * @return players keyed by id, containing an entry for every requested id
+     */
+    protected Map<UUID, CarbonPlayerCommon> loadOrCreate(final Collection<UUID> uuids) {
+        final Map<UUID, CarbonPlayerCommon> players = new HashMap<>();
+        for (final UUID uuid : uuids) {
+            players.put(uuid, this.loadOrCreate(uuid));
+        }
+        return players;
+    }
+
+    /**
+     * Save the player, consuming its pending changes.
+     *
+     * @param player player
+     */
     protected abstract void saveSync(CarbonPlayerCommon player);
 
+    /**
+     * Save the given players, consuming their pending changes. Implementations should override this when they can
+     * save many players cheaper than one at a time.
+     *
+     * @param players players to save
+     */
+    protected void saveSync(final Collection<CarbonPlayerCommon> players) {
+        for (final CarbonPlayerCommon player : players) {
+            this.saveSync(player);
+        }
+    }
+
+    /**
+     * Save the given players, replacing everything stored for them. The default implementation writes each player
+     * in full through {@link #saveSync(Collection)}, which is enough for storage that doesn't keep partial updates.
+     *
+     * @param players players to save, with every property marked changed
+     */
+    protected void replaceSync(final Collection<CarbonPlayerCommon> players) {
+        this.saveSync(players);
+    }
+
+    /**
+     * Get the ids of every player in storage, whether or not they are loaded.
+     *
+     * @return stored player ids
+     */
+    protected abstract List<UUID> storedPlayers();
+
+    /**
+     * Called on the loading thread once a player has been loaded and injected,
+     * before it is made available to callers.
+     *
+     * @param player loaded player
+     */
+    protected void playerLoaded(final CarbonPlayerCommon player) {
+    }
+
+    /**
+     * Get the executor that runs loads and saves for the given player.
+     *
+     * @param playerId player id
+     * @return executor
+     */
+    protected final Executor executor(final UUID playerId) {
+        return this.executor.stripe(playerId);
+    }
+
+    /**
+     * Get the number of load and save tasks that are queued or running.
+     *
+     * @return queue depth
+     */
+    public int queueDepth() {
+        return this.executor.queueDepth();
+    }
+
+    /**
+     * Get the recent latency of load and save tasks, from submission to completion.
+     *
+     * @return latency in milliseconds
+     */
+    public double latencyMillis() {
+        return this.executor.latencyMillis();
+    }
+
     private CompletableFuture<Void> save(final CarbonPlayerCommon player) {
-        return CompletableFuture.runAsync(() -> this.saveSync(player), this.executor);
+        return CompletableFuture.runAsync(() -> this.saveSync(player), this.executor(player.uuid()));
     }
 
     @Override
     public void saveCompleteMessageReceived(final UUID playerId) {
-        this.cacheLock.lock();
-        try {
-            this.cache.remove(playerId);
-        } finally {
-            this.cacheLock.unlock();
+        this.cache.remove(playerId);
+        this.offlinePlayers.invalidate(playerId);
+    }
+
+    @Override
+    public void markTransientLoaded(final CarbonPlayerCommon player, final boolean value) {
+        player.markTransientLoaded(value);
+        if (!value) {
+            this.offlinePlayers.invalidate(player.uuid());
+            return;
+        }
+
+        final @Nullable CompletableFuture<CarbonPlayerCommon> future = this.cache.get(player.uuid());
+        // Reading the entry counts as an access, which pushes back its expiry
+        if (future != null && this.offlinePlayers.getIfPresent(player.uuid()) != future) {
+            this.offlinePlayers.put(player.uuid(), future);
+        }
+    }
+
+    private void offlinePlayerRemoved(
+        final @Nullable UUID uuid,
+        final @Nullable CompletableFuture<CarbonPlayerCommon> future,
+        final RemovalCause cause
+    ) {
+        // Explicit removals and replacements are handled by whoever caused them
+        if (!cause.wasEvicted() || uuid == null || future == null) {
+            return;
         }
+        final @Nullable CarbonPlayerCommon player = future.getNow(null);
+        // The player may have logged in since, or a newer copy may have been loaded
+        if (player == null || !player.transientLoaded() || !this.cache.remove(uuid, future)) {
+            return;
+        }
+        this.saveIfNeeded(player).exceptionally(thr -> {
+            this.logger.warn("Exception saving data for player {} with UUID {}", player.username(), player.uuid(), thr);
+            return null;
+        });
     }
 
     @Override
@@ -93,90 +227,137 @@ public abstract class CachingUserManager implements UserManagerInternal<CarbonPl
         if (!player.needsSave()) {
             return CompletableFuture.completedFuture(null);
         }
-        return this.save(player).whenComplete(($, $$) -> {
-            player.saved();
-            this.messagingManager.get().withPacketService(packetService -> {
-                packetService.queuePacket(this.packetFactory.saveCompletedPacket(player.uuid()));
-                packetService.flushQueue();
-            });
-        });
+        return this.save(player).whenComplete(($, $$) -> this.saveCompleted(List.of(player)));
+    }
+
+    /**
+     * Notify other servers that the given players were saved, so they drop their cached copies.
+     *
+     * @param players saved players
+     */
+    protected final void saveCompleted(final List<CarbonPlayerCommon> players) {
+        final MessagingManager messaging = this.messagingManager.get();
+        for (final CarbonPlayerCommon player : players) {
+            messaging.queuePacket(this.packetFactory.saveCompletedPacket(player.uuid()));
+        }
     }
 
     @Override
     public CompletableFuture<CarbonPlayerCommon> user(final UUID uuid) {
-        this.cacheLock.lock();
+        // Fast path for loaded (or loading) players, no locking
+        final @Nullable CompletableFuture<CarbonPlayerCommon> cached = this.cache.get(uuid);
+        if (cached != null) {
+            return cached;
+        }
+
+        final CompletableFuture<CarbonPlayerCommon> future = new CompletableFuture<>();
+        final @Nullable CompletableFuture<CarbonPlayerCommon> existing = this.cache.putIfAbsent(uuid, future);
+        if (existing != null) {
+            return existing;
+        }
+
+        this.attachPostLoad(uuid, future);
         try {
-            return this.cache.computeIfAbsent(uuid, $ -> {
-                final CompletableFuture<CarbonPlayerCommon> future = CompletableFuture.supplyAsync(() -> {
-                    final CarbonPlayerCommon player = this.loadOrCreate(uuid);
-                    this.playerInjector.injectMembers(player);
-                    if (this instanceof DatabaseUserManager) {
-                        player.registerPropertyUpdateListener(() -> this.save(player));
-                    }
-                    return player;
-                }, this.executor);
-                this.attachPostLoad(uuid, future);
-                return future;
+            this.executor(uuid).execute(() -> {
+                try {
+                    future.complete(this.initialize(this.loadOrCreate(uuid)));
+                } catch (final Throwable thr) {
+                    future.completeExceptionally(thr);
+                }
             });
-        } finally {
-            this.cacheLock.unlock();
+        } catch (final RejectedExecutionException ex) {
+            // Removes the future from the cache, so later calls don't wait on a load that never runs
+            future.completeExceptionally(ex);
+        }
+        return future;
+    }
+
+    @Override
+    public CompletableFuture<Map<UUID, CarbonPlayerCommon>> users(final Collection<UUID> uuids) {
+        final Map<UUID, CompletableFuture<CarbonPlayerCommon>> futures = new LinkedHashMap<>();
+        final Map<Executor, Map<UUID, CompletableFuture<CarbonPlayerCommon>>> misses = new HashMap<>();
+
+        for (final UUID uuid : uuids) {
+            if (futures.containsKey(uuid)) {
+                continue;
+            }
+            final @Nullable CompletableFuture<CarbonPlayerCommon> cached = this.cache.get(uuid);
+            if (cached != null) {
+                futures.put(uuid, cached);
+                continue;
+            }
+
+            final CompletableFuture<CarbonPlayerCommon> future = new CompletableFuture<>();
+            final @Nullable CompletableFuture<CarbonPlayerCommon> existing = this.cache.putIfAbsent(uuid, future);
+            if (existing != null) {
+                futures.put(uuid, existing);
+                continue;
+            }
+            futures.put(uuid, future);
+            this.attachPostLoad(uuid, future);
+            misses.computeIfAbsent(this.executor(uuid), $ -> new LinkedHashMap<>()).put(uuid, future);
         }
+
+        // One batch per worker, so each batch stays ordered with other tasks for its players
+        misses.forEach((executor, stripeMisses) -> {
+            try {
+                executor.execute(() -> {
+                    try {
+                        final Map<UUID, CarbonPlayerCommon> loaded = this.loadOrCreate(stripeMisses.keySet());
+                        stripeMisses.forEach((uuid, future) -> future.complete(this.initialize(Objects.requireNonNull(loaded.get(uuid), "player"))));
+                    } catch (final Throwable thr) {
+                        stripeMisses.values().forEach(future -> future.completeExceptionally(thr));
+                    }
+                });
+            } catch (final RejectedExecutionException ex) {
+                stripeMisses.values().forEach(future -> future.completeExceptionally(ex));
+            }
+        });
+
+        return CompletableFuture.allOf(futures.values().toArray(CompletableFuture[]::new)).thenApply($ -> {
+            final Map<UUID, CarbonPlayerCommon> players = new LinkedHashMap<>();
+            futures.forEach((uuid, future) -> players.put(uuid, future.join()));
+            return Collections.unmodifiableMap(players);
+        });
+    }
+
+    private CarbonPlayerCommon initialize(final CarbonPlayerCommon player) {
+        this.playerInjector.injectMembers(player);
+        this.playerLoaded(player);
+        return player;
     }
 
     @Override
     public void shutdown() {
-        this.cacheLock.lock();
-        try {
-            final Map<UUID, CompletableFuture<Void>> collect = List.copyOf(this.cache.keySet()).stream()
-                .collect(Collectors.toMap(Function.identity(), this::loggedOut));
-            for (final Map.Entry<UUID, CompletableFuture<Void>> entry : collect.entrySet()) {
-                try {
-                    entry.getValue().join();
-                } catch (final Exception ex) {
-                    this.logger.warn("Exception saving data for player with uuid " + entry.getKey());
-                }
+        final Map<UUID, CompletableFuture<Void>> collect = List.copyOf(this.cache.keySet()).stream()
+            .collect(Collectors.toMap(Function.identity(), this::loggedOut));
+        for (final Map.Entry<UUID, CompletableFuture<Void>> entry : collect.entrySet()) {
+            try {
+                entry.getValue().join();
+            } catch (final Exception ex) {
+                this.logger.warn("Exception saving data for player with uuid " + entry.getKey());
             }
-            ConcurrentUtil.shutdownExecutor(this.executor, TimeUnit.MILLISECONDS, 500);
-        } finally {
-            this.cacheLock.unlock();
         }
+        this.executor.shutdown(TimeUnit.MILLISECONDS, 500);
     }
 
     @Override
     public CompletableFuture<Void> loggedOut(final UUID uuid) {
-        this.cacheLock.lock();
-        try {
-            final @Nullable CompletableFuture<CarbonPlayerCommon> remove = this.cache.remove(uuid);
-            if (remove != null && remove.isDone()) { // don't need to save if it never finished loading
-                final @Nullable CarbonPlayerCommon join = remove.join();
-                if (join != null) {
-                    return this.saveIfNeeded(join);
-                }
+        this.offlinePlayers.invalidate(uuid);
+        final @Nullable CompletableFuture<CarbonPlayerCommon> remove = this.cache.remove(uuid);
+        if (remove != null && remove.isDone()) { // don't need to save if it never finished loading
+            final @Nullable CarbonPlayerCommon join = remove.getNow(null);
+            if (join != null) {
+                return this.saveIfNeeded(join);
             }
-            return CompletableFuture.completedFuture(null);
-        } finally {
-            this.cacheLock.unlock();
         }
+        return CompletableFuture.completedFuture(null);
     }
 
     @Override
     public void cleanup() {
-        this.cacheLock.lock();
-        try {
-            for (final Map.Entry<UUID, CompletableFuture<CarbonPlayerCommon>> entry : Map.copyOf(this.cache).entrySet()) {
-                final @Nullable CarbonPlayerCommon getNow = entry.getValue().getNow(null);
-                if (getNow == null || !getNow.transientLoadedNeedsUnload()) {
-                    continue;
-                }
-                this.cache.remove(entry.getKey());
-                this.saveIfNeeded(getNow).exceptionally(thr -> {
-                    this.logger.warn("Exception saving data for player {} with UUID {}", getNow.username(), getNow.uuid(), thr);
-                    return null;
-                });
-            }
-        } finally {
-            this.cacheLock.unlock();
-        }
+        // Expiry is otherwise only processed as a side effect of cache access
+        this.offlinePlayers.cleanUp();
     }
 
     // Don't keep failed requests, so they can be retried on the next request
@@ -184,12 +365,7 @@ public abstract class CachingUserManager implements UserManagerInternal<CarbonPl
     private void attachPostLoad(final UUID uuid, final CompletableFuture<CarbonPlayerCommon> future) {
         future.whenComplete((result, thr) -> {
             if (result == null || thr != null) {
-                this.cacheLock.lock();
-                try {
-                    this.cache.remove(uuid);
-                } finally {
-                    this.cacheLock.unlock();
-                }
+                this.cache.remove(uuid, future);
             }
         });
     }
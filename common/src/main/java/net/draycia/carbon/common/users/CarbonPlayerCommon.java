@@ -20,7 +20,6 @@
 package net.draycia.carbon.common.users;
 
 import com.google.inject.Inject;
-import java.time.Duration;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
@@ -34,7 +33,9 @@ import net.draycia.carbon.api.channels.ChatChannel;
 import net.draycia.carbon.api.users.CarbonPlayer;
 import net.draycia.carbon.api.util.InventorySlot;
 import net.draycia.carbon.common.PlatformScheduler;
+import net.draycia.carbon.common.channels.ChannelMembership;
 import net.draycia.carbon.common.config.ConfigFactory;
+import net.draycia.carbon.common.listeners.PingHandler;
 import net.kyori.adventure.audience.Audience;
 import net.kyori.adventure.audience.ForwardingAudience;
 import net.kyori.adventure.identity.Identity;
@@ -49,13 +50,13 @@ import org.jetbrains.annotations.NotNull;
 @DefaultQualifier(NonNull.class)
 public class CarbonPlayerCommon implements CarbonPlayer, ForwardingAudience.Single {
 
-    private static final long KEEP_TRANSIENT_LOADS_FOR = Duration.ofMinutes(2).toMillis();
-
     private transient @MonotonicNonNull @Inject ChannelRegistry channelRegistry;
     private transient @MonotonicNonNull @Inject ProfileResolver profileResolver;
     private transient @MonotonicNonNull @Inject PlatformScheduler scheduler;
     private transient @MonotonicNonNull @Inject ConfigFactory config;
-    private volatile transient long transientLoadedSince = -1;
+    private transient @MonotonicNonNull @Inject ChannelMembership channelMembership;
+    private transient @MonotonicNonNull @Inject PingHandler pingHandler;
+    private volatile transient boolean transientLoaded = false;
 
     protected final PersistentUserProperty<Boolean> muted;
     protected final PersistentUserProperty<Boolean> deafened;
@@ -80,6 +81,11 @@ public class CarbonPlayerCommon implements CarbonPlayer, ForwardingAudience.Sing
 
     protected final PersistentUserProperty<Set<Key>> leftChannels;
 
+    // Row level changes to the sets above, so database backends only write what changed
+    protected final transient SetChanges<UUID> ignoredPlayersChanges = new SetChanges<>();
+    protected final transient SetChanges<Key> leftChannelsChanges = new SetChanges<>();
+    private transient volatile @Nullable LeftChannels leftChannelsView;
+
     public CarbonPlayerCommon(
         final boolean muted,
         final boolean deafened,
@@ -130,7 +136,60 @@ public class CarbonPlayerCommon implements CarbonPlayer, ForwardingAudience.Sing
     }
 
     public boolean needsSave() {
-        return this.properties().anyMatch(PersistentUserProperty::changed);
+        return this.properties().anyMatch(PersistentUserProperty::changed)
+            || !this.ignoredPlayersChanges.isEmpty()
+            || !this.leftChannelsChanges.isEmpty();
+    }
+
+    /**
+     * Take and clear the changes made since they were last taken or {@link #saved()} was called.
+     *
+     * @return pending changes
+     */
+    public Changes takeChanges() {
+        return new Changes(
+            this.muted.takeChanged(),
+            this.deafened.takeChanged(),
+            this.selectedChannel.takeChanged(),
+            this.displayName.takeChanged(),
+            this.spying.takeChanged(),
+            this.ignoredPlayers.takeChanged(),
+            this.ignoredPlayersChanges.take(),
+            this.leftChannels.takeChanged(),
+            this.leftChannelsChanges.take()
+        );
+    }
+
+    /**
+     * Re-apply changes returned by {@link #takeChanges()} after they failed to save.
+     *
+     * @param changes changes to restore
+     */
+    public void restoreChanges(final Changes changes) {
+        restoreChanged(this.muted, changes.muted());
+        restoreChanged(this.deafened, changes.deafened());
+        restoreChanged(this.selectedChannel, changes.selectedChannel());
+        restoreChanged(this.displayName, changes.displayName());
+        restoreChanged(this.spying, changes.spying());
+        restoreChanged(this.ignoredPlayers, changes.ignoredPlayersChanged());
+        this.ignoredPlayersChanges.restore(changes.ignoredPlayers());
+        restoreChanged(this.leftChannels, changes.leftChannelsChanged());
+        this.leftChannelsChanges.restore(changes.leftChannels());
+    }
+
+    private static void restoreChanged(final PersistentUserProperty<?> property, final boolean changed) {
+        if (changed) {
+            property.markChanged();
+        }
+    }
+
+    /**
+     * Mark all persistent data as changed, so the next save writes the player in full.
+     */
+    public void markAllChanged() {
+        this.properties().forEach(PersistentUserProperty::markChanged);
+        this.ignoredPlayers.get().forEach(this.ignoredPlayersChanges::added);
+        this.leftChannels.get().forEach(this.leftChannelsChanges::added);
     }
 
     private Stream<PersistentUserProperty<?>> properties() {
@@ -178,6 +237,10 @@ public class CarbonPlayerCommon implements CarbonPlayer, ForwardingAudience.Sing
     @Override
     public void displayName(final @Nullable Component displayName) {
         this.displayName.set(displayName);
+        // Not injected yet while the player is being loaded, before they can be pinged
+        if (this.pingHandler != null) {
+            this.pingHandler.namesChanged(this.uuid);
+        }
     }
 
     @Override
@@ -221,14 +284,17 @@ public class CarbonPlayerCommon implements CarbonPlayer, ForwardingAudience.Sing
 
     public void ignoring(final UUID player, final boolean nowIgnoring, final boolean internal) {
         final Set<UUID> newIgnored = new HashSet<>(this.ignoredPlayers.get());
-        if (nowIgnoring) {
-            newIgnored.add(player);
-        } else {
-            newIgnored.remove(player);
-        }
+        final boolean modified = nowIgnoring ? newIgnored.add(player) : newIgnored.remove(player);
         if (internal) {
             this.ignoredPlayers.internalSet(Collections.unmodifiableSet(newIgnored));
         } else {
+            if (modified) {
+                if (nowIgnoring) {
+                    this.ignoredPlayersChanges.added(player);
+                } else {
+                    this.ignoredPlayersChanges.removed(player);
+                }
+            }
             this.ignoredPlayers.set(Collections.unmodifiableSet(newIgnored));
         }
     }
@@ -305,17 +371,30 @@ public class CarbonPlayerCommon implements CarbonPlayer, ForwardingAudience.Sing
 
     @Override
     public List<Key> leftChannels() {
-        return List.copyOf(this.leftChannels.get());
+        final Set<Key> current = this.leftChannels.get();
+        @Nullable LeftChannels view = this.leftChannelsView;
+
+        // Changes replace the set, so the copy only needs to be redone when it was replaced
+        if (view == null || view.source() != current) {
+            view = new LeftChannels(current, List.copyOf(current));
+            this.leftChannelsView = view;
+        }
+
+        return view.list();
     }
 
     public void joinChannel(final Key key, final boolean internal) {
         final Set<Key> newKeys = new HashSet<>(this.leftChannels.get());
-        newKeys.remove(key);
+        final boolean modified = newKeys.remove(key);
         if (internal) {
             this.leftChannels.internalSet(Collections.unmodifiableSet(newKeys));
         } else {
+            if (modified) {
+                this.leftChannelsChanges.removed(key);
+            }
             this.leftChannels.set(Collections.unmodifiableSet(newKeys));
         }
+        this.leftChannelsChanged();
     }
 
     @Override
@@ -324,13 +403,28 @@ public class CarbonPlayerCommon implements CarbonPlayer, ForwardingAudience.Sing
     }
 
     public void leaveChannel(final ChatChannel channel, final boolean internal) {
+        this.leaveChannel(channel.key(), internal);
+    }
+
+    public void leaveChannel(final Key key, final boolean internal) {
         final Set<Key> newKeys = new HashSet<>(this.leftChannels.get());
-        newKeys.add(channel.key());
+        final boolean modified = newKeys.add(key);
         if (internal) {
             this.leftChannels.internalSet(Collections.unmodifiableSet(newKeys));
         } else {
+            if (modified) {
+                this.leftChannelsChanges.added(key);
+            }
             this.leftChannels.set(Collections.unmodifiableSet(newKeys));
         }
+        this.leftChannelsChanged();
+    }
+
+    private void leftChannelsChanged() {
+        // Not injected yet while the player is being loaded, before they can be a channel member
+        if (this.channelMembership != null) {
+            this.channelMembership.refresh(this.uuid);
+        }
     }
 
     @Override
@@ -401,20 +495,25 @@ public class CarbonPlayerCommon implements CarbonPlayer, ForwardingAudience.Sing
         return this.username;
     }
 
+    /**
+     * Get the username if it is already known, without resolving it.
+     *
+     * @return username, or null if it has not been resolved yet
+     */
+    public @Nullable String usernameIfResolved() {
+        return this.username;
+    }
+
     public void username(final String username) {
         this.username = username;
     }
 
     public void markTransientLoaded(final boolean value) {
-        if (value) {
-            this.transientLoadedSince = System.currentTimeMillis();
-        } else {
-            this.transientLoadedSince = -1;
-        }
+        this.transientLoaded = value;
     }
 
-    public boolean transientLoadedNeedsUnload() {
-        return this.transientLoadedSince != -1 && System.currentTimeMillis() - this.transientLoadedSince > KEEP_TRANSIENT_LOADS_FOR;
+    public boolean transientLoaded() {
+        return this.transientLoaded;
     }
 
     @Override
@@ -446,6 +545,37 @@ public class CarbonPlayerCommon implements CarbonPlayer, ForwardingAudience.Sing
 
     public void saved() {
         this.properties().forEach(PersistentUserProperty::saved);
+        this.ignoredPlayersChanges.clear();
+        this.leftChannelsChanges.clear();
+    }
+
+    public record Changes(
+        boolean muted,
+        boolean deafened,
+        boolean selectedChannel,
+        boolean displayName,
+        boolean spying,
+        boolean ignoredPlayersChanged,
+        SetChanges.Snapshot<UUID> ignoredPlayers,
+        boolean leftChannelsChanged,
+        SetChanges.Snapshot<Key> leftChannels
+    ) {
+
+        public boolean isEmpty() {
+            return !this.muted
+                && !this.deafened
+                && !this.selectedChannel
+                && !this.displayName
+                && !this.spying
+                && !this.ignoredPlayersChanged
+                && this.ignoredPlayers.isEmpty()
+                && !this.leftChannelsChanged
+                && this.leftChannels.isEmpty();
+        }
+
+    }
+
+    private record LeftChannels(Set<Key> source, List<Key> list) {
     }
 
 }
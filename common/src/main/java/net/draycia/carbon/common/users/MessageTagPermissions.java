@@ -0,0 +1,224 @@
+/*
+ * CarbonChat
+ *
+ * Copyright (c) 2023 Josua Parks (Vicarious)
+ *                    Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.draycia.carbon.common.users;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.seiama.event.EventConfig;
+import io.github.miniplaceholders.api.MiniPlaceholders;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import net.draycia.carbon.api.event.CarbonEventHandler;
+import net.draycia.carbon.api.users.CarbonPlayer;
+import net.draycia.carbon.common.event.events.CarbonReloadEvent;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.TextDecoration;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import net.kyori.adventure.text.minimessage.tag.resolver.TagResolver;
+import net.kyori.adventure.text.minimessage.tag.standard.StandardTags;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.framework.qual.DefaultQualifier;
+
+/**
+ * The message tags a player may use, kept as a bitmask per player, with one {@link MiniMessage}
+ * instance shared by every player that has the same mask.
+ *
+ * <p>Masks are invalidated when LuckPerms recalculates a player's permissions. Without LuckPerms
+ * there is no event for permission changes, so masks are only trusted for {@link #UNOBSERVED_MASK_LIFETIME}.</p>
+ */
+@DefaultQualifier(NonNull.class)
+@Singleton
+public final class MessageTagPermissions {
+
+    public static final int MESSAGE_TAGS = 1;
+    public static final int CHAT_PLACEHOLDERS = 1 << 1;
+
+    private static final Duration MASK_LIFETIME = Duration.ofMinutes(1);
+    private static final Duration UNOBSERVED_MASK_LIFETIME = Duration.ofSeconds(5);
+    private static final List<Map.Entry<String, TagResolver>> TAGS = tags();
+
+    private final Cache<UUID, Mask> masks = Caffeine.newBuilder()
+        .expireAfterWrite(MASK_LIFETIME)
+        .build();
+    private final Map<Integer, MiniMessage> miniMessages = new ConcurrentHashMap<>();
+    private volatile boolean permissionEvents = false;
+    private volatile @Nullable Boolean miniPlaceholdersLoaded;
+
+    @Inject
+    private MessageTagPermissions(final CarbonEventHandler events) {
+        events.subscribe(CarbonReloadEvent.class, 0, EventConfig.DEFAULT_ACCEPTS_CANCELLED, $ -> this.masks.invalidateAll());
+    }
+
+    private static List<Map.Entry<String, TagResolver>> tags() {
+        final List<Map.Entry<String, TagResolver>> tags = new ArrayList<>(WrappedCarbonPlayer.DEFAULT_TAGS.entrySet());
+        for (final TextDecoration decoration : TextDecoration.values()) {
+            tags.add(Map.entry(decoration.name(), StandardTags.decorations(decoration)));
+        }
+        return List.copyOf(tags);
+    }
+
+    /**
+     * Parse a player's message, allowing only the tags they have permission for.
+     *
+     * @param sender  the player
+     * @param message the message
+     * @return parsed message
+     */
+    public Component parse(final CarbonPlayer sender, final String message) {
+        final int mask = this.mask(sender.uuid(), sender::hasPermission);
+
+        if ((mask & MESSAGE_TAGS) == 0) {
+            return Component.text(message);
+        }
+
+        if ((mask & CHAT_PLACEHOLDERS) != 0 && this.miniPlaceholdersLoaded()) {
+            return this.miniMessage(mask).deserialize(message, TagResolver.resolver(
+                MiniPlaceholders.getGlobalPlaceholders(),
+                MiniPlaceholders.getAudiencePlaceholders(sender)
+            ));
+        }
+
+        return this.miniMessage(mask).deserialize(message);
+    }
+
+    /**
+     * Parse a message, allowing only the tags permitted by an uncached permission check.
+     *
+     * @param message    the message
+     * @param permission permission check
+     * @return parsed message
+     */
+    public Component parse(final String message, final Predicate<String> permission) {
+        final int mask = compute(permission);
+
+        if ((mask & MESSAGE_TAGS) == 0) {
+            return Component.text(message);
+        }
+
+        return this.miniMessage(mask).deserialize(message);
+    }
+
+    /**
+     * Get the mask for a player, checking their permissions if it is not cached or may be stale.
+     *
+     * @param player     the player's id
+     * @param permission permission check for the player
+     * @return permission mask
+     */
+    public int mask(final UUID player, final Predicate<String> permission) {
+        final long now = System.nanoTime();
+        final @Nullable Mask cached = this.masks.getIfPresent(player);
+        if (cached != null && (this.permissionEvents || now - cached.checked() < UNOBSERVED_MASK_LIFETIME.toNanos())) {
+            return cached.bits();
+        }
+
+        final Mask mask = new Mask(compute(permission), now);
+        this.masks.put(player, mask);
+        return mask.bits();
+    }
+
+    /**
+     * Check every message tag permission.
+     *
+     * @param permission permission check
+     * @return permission mask
+     */
+    public static int compute(final Predicate<String> permission) {
+        if (!permission.test("carbon.messagetags")) {
+            return 0;
+        }
+
+        int mask = MESSAGE_TAGS;
+        if (permission.test("carbon.chatplaceholders")) {
+            mask |= CHAT_PLACEHOLDERS;
+        }
+        for (int i = 0; i < TAGS.size(); i++) {
+            if (permission.test("carbon.messagetags." + TAGS.get(i).getKey())) {
+                mask |= tagBit(i);
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Forget the cached mask for a player, for example because their permissions changed.
+     *
+     * @param player the player's id
+     */
+    public void invalidate(final UUID player) {
+        this.masks.invalidate(player);
+    }
+
+    /**
+     * Called once permission changes are reported through {@link #invalidate(UUID)},
+     * so cached masks can be kept for the full {@link #MASK_LIFETIME}.
+     */
+    public void permissionEventsAvailable() {
+        this.permissionEvents = true;
+    }
+
+    /**
+     * Get the shared parser allowing the tags in a mask.
+     *
+     * @param mask permission mask
+     * @return parser
+     */
+    public MiniMessage miniMessage(final int mask) {
+        return this.miniMessages.computeIfAbsent(mask, $ -> {
+            final TagResolver.Builder resolver = TagResolver.builder();
+            for (int i = 0; i < TAGS.size(); i++) {
+                if ((mask & tagBit(i)) != 0) {
+                    resolver.resolver(TAGS.get(i).getValue());
+                }
+            }
+            return MiniMessage.builder().tags(resolver.build()).build();
+        });
+    }
+
+    private boolean miniPlaceholdersLoaded() {
+        @Nullable Boolean loaded = this.miniPlaceholdersLoaded;
+        if (loaded == null) {
+            try {
+                Class.forName("io.github.miniplaceholders.api.MiniPlaceholders");
+                loaded = true;
+            } catch (final ClassNotFoundException ignored) {
+                loaded = false;
+            }
+            this.miniPlaceholdersLoaded = loaded;
+        }
+        return loaded;
+    }
+
+    private static int tagBit(final int index) {
+        return 1 << (index + 2);
+    }
+
+    private record Mask(int bits, long checked) {
+    }
+
+}
@@ -19,6 +19,10 @@
  */
 package net.draycia.carbon.common.users;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import org.checkerframework.checker.nullness.qual.NonNull;
@@ -35,13 +39,24 @@ public abstract class PlatformUserManager<C extends WrappedCarbonPlayer> impleme
 
     @Override
     public CompletableFuture<C> user(final UUID uuid) {
-        return this.backingManager.user(uuid).thenApply(common -> {
-            final C wrapped = this.wrap(common);
-            common.markTransientLoaded(!wrapped.online());
-            return wrapped;
+        return this.backingManager.user(uuid).thenApply(this::wrapLoaded);
+    }
+
+    @Override
+    public CompletableFuture<Map<UUID, C>> users(final Collection<UUID> uuids) {
+        return this.backingManager.users(uuids).thenApply(commons -> {
+            final Map<UUID, C> players = new LinkedHashMap<>();
+            commons.forEach((uuid, common) -> players.put(uuid, this.wrapLoaded(common)));
+            return Collections.unmodifiableMap(players);
         });
     }
 
+    private C wrapLoaded(final CarbonPlayerCommon common) {
+        final C wrapped = this.wrap(common);
+        this.backingManager.markTransientLoaded(common, !wrapped.online());
+        return wrapped;
+    }
+
     protected abstract C wrap(final CarbonPlayerCommon common);
 
     @Override
@@ -69,4 +84,9 @@ public abstract class PlatformUserManager<C extends WrappedCarbonPlayer> impleme
         this.backingManager.cleanup();
     }
 
+    @Override
+    public void markTransientLoaded(final C player, final boolean value) {
+        this.backingManager.markTransientLoaded(player.carbonPlayerCommon(), value);
+    }
+
 }
@@ -0,0 +1,86 @@
+/*
+ * CarbonChat
+ *
+ * Copyright (c) 2023 Josua Parks (Vicarious)
+ *                    Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.draycia.carbon.common.users;
+
+import java.util.HashSet;
+import java.util.Set;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.framework.qual.DefaultQualifier;
+
+/**
+ * Tracks the net additions and removals made to a persistent set since the changes were last taken.
+ *
+ * <p>Adding an element that is pending removal (or the inverse) cancels the pending change,
+ * so only elements whose stored state differs are reported.</p>
+ *
+ * @param <T> element type
+ */
+@DefaultQualifier(NonNull.class)
+public final class SetChanges<T> {
+
+    private final Set<T> added = new HashSet<>();
+    private final Set<T> removed = new HashSet<>();
+
+    public synchronized void added(final T value) {
+        if (!this.removed.remove(value)) {
+            this.added.add(value);
+        }
+    }
+
+    public synchronized void removed(final T value) {
+        if (!this.added.remove(value)) {
+            this.removed.add(value);
+        }
+    }
+
+    public synchronized boolean isEmpty() {
+        return this.added.isEmpty() && this.removed.isEmpty();
+    }
+
+    public synchronized Snapshot<T> take() {
+        final Snapshot<T> snapshot = new Snapshot<>(Set.copyOf(this.added), Set.copyOf(this.removed));
+        this.clear();
+        return snapshot;
+    }
+
+    /**
+     * Re-applies changes previously returned by {@link #take()}, for example after a failed write.
+     *
+     * @param snapshot changes to restore
+     */
+    public synchronized void restore(final Snapshot<T> snapshot) {
+        snapshot.added().forEach(this::added);
+        snapshot.removed().forEach(this::removed);
+    }
+
+    public synchronized void clear() {
+        this.added.clear();
+        this.removed.clear();
+    }
+
+    public record Snapshot<T>(Set<T> added, Set<T> removed) {
+
+        public boolean isEmpty() {
+            return this.added.isEmpty() && this.removed.isEmpty();
+        }
+
+    }
+
+}
@@ -0,0 +1,74 @@
+/*
+ * CarbonChat
+ *
+ * Copyright (c) 2023 Josua Parks (Vicarious)
+ *                    Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.draycia.carbon.common.users;
+
+import com.google.inject.Singleton;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.framework.qual.DefaultQualifier;
+
+/**
+ * Tracks how often chat had to wait for a player that was not loaded yet.
+ */
+@Singleton
+@DefaultQualifier(NonNull.class)
+public final class UserLoadMetrics {
+
+    private final LongAdder chatMessages = new LongAdder();
+    private final LongAdder blockedChatMessages = new LongAdder();
+    private final LongAdder blockedNanos = new LongAdder();
+
+    /**
+     * Wait for the sender of a chat message to load, recording whether the chat thread had to block.
+     *
+     * @param future sender future
+     * @param <C>    player type
+     * @return sender
+     */
+    public <C> C awaitChatSender(final CompletableFuture<C> future) {
+        this.chatMessages.increment();
+        if (future.isDone()) {
+            return future.join();
+        }
+
+        this.blockedChatMessages.increment();
+        final long start = System.nanoTime();
+        try {
+            return future.join();
+        } finally {
+            this.blockedNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    public long chatMessages() {
+        return this.chatMessages.sum();
+    }
+
+    public long blockedChatMessages() {
+        return this.blockedChatMessages.sum();
+    }
+
+    public double blockedMillis() {
+        return this.blockedNanos.sum() / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+}
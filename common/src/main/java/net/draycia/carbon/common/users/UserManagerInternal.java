@@ -39,4 +39,13 @@ public interface UserManagerInternal<C extends CarbonPlayer> extends UserManager
 
     void cleanup();
 
+    /**
+     * Mark whether a loaded player is only held for offline use, i.e. they are not logged in to this server.
+     * Offline players are kept in a bounded cache and unloaded once it is full or they were not used for a while.
+     *
+     * @param player loaded player
+     * @param value  whether the player is offline
+     */
+    void markTransientLoaded(C player, boolean value);
+
 }
@@ -0,0 +1,155 @@
+/*
+ * CarbonChat
+ *
+ * Copyright (c) 2023 Josua Parks (Vicarious)
+ *                    Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.draycia.carbon.common.users;
+
+import com.google.common.collect.Lists;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import net.draycia.carbon.common.util.ConcurrentUtil;
+import org.apache.logging.log4j.Logger;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.framework.qual.DefaultQualifier;
+
+/**
+ * Copies every stored player from one user manager to another.
+ *
+ * <p>Players are copied in batches, several at a time, so only a few batches are ever held in memory.
+ * After every round of batches the last copied id is written to a checkpoint file, and a later run
+ * with the same checkpoint file continues from there. Existing players in the target are overwritten,
+ * including ignores and left channels the source doesn't have.</p>
+ */
+@DefaultQualifier(NonNull.class)
+public final class UserMigration {
+
+    private static final int BATCH_SIZE = 500;
+    private static final int PARALLEL_BATCHES = 4;
+
+    private final CachingUserManager source;
+    private final CachingUserManager target;
+    private final Path checkpointFile;
+    private final Logger logger;
+
+    public UserMigration(
+        final CachingUserManager source,
+        final CachingUserManager target,
+        final Path checkpointFile,
+        final Logger logger
+    ) {
+        this.source = source;
+        this.target = target;
+        this.checkpointFile = checkpointFile;
+        this.logger = logger;
+    }
+
+    /**
+     * Run the migration on the calling thread.
+     *
+     * @param progress called after every round of batches
+     * @return number of players copied by this run
+     * @throws IOException when the checkpoint cannot be read or written
+     */
+    public int run(final Progress progress) throws IOException {
+        final List<UUID> ids = new ArrayList<>(this.source.storedPlayers());
+        // A fixed order, so the checkpoint is just the last copied id
+        ids.sort(null);
+
+        final @Nullable UUID checkpoint = this.readCheckpoint();
+        if (checkpoint != null) {
+            this.logger.info("Resuming player migration after {}", checkpoint);
+            ids.removeIf(id -> id.compareTo(checkpoint) <= 0);
+        }
+
+        final List<List<UUID>> batches = Lists.partition(ids, BATCH_SIZE);
+        final ExecutorService executor = Executors.newFixedThreadPool(
+            PARALLEL_BATCHES,
+            ConcurrentUtil.carbonThreadFactory(this.logger, "UserMigration")
+        );
+
+        int migrated = 0;
+        try {
+            for (final List<List<UUID>> round : Lists.partition(batches, PARALLEL_BATCHES)) {
+                final List<CompletableFuture<Void>> futures = new ArrayList<>(round.size());
+                for (final List<UUID> batch : round) {
+                    futures.add(CompletableFuture.runAsync(() -> this.migrate(batch), executor));
+                }
+                CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+
+                final List<UUID> lastBatch = round.get(round.size() - 1);
+                this.writeCheckpoint(lastBatch.get(lastBatch.size() - 1));
+                for (final List<UUID> batch : round) {
+                    migrated += batch.size();
+                }
+                progress.progress(migrated, ids.size());
+            }
+        } finally {
+            ConcurrentUtil.shutdownExecutor(executor, TimeUnit.SECONDS, 10);
+        }
+
+        Files.deleteIfExists(this.checkpointFile);
+        return migrated;
+    }
+
+    private void migrate(final List<UUID> batch) {
+        final Map<UUID, CarbonPlayerCommon> players = this.source.loadOrCreate(batch);
+        for (final CarbonPlayerCommon player : players.values()) {
+            // Freshly loaded players have no pending changes, the target needs to write everything
+            player.markAllChanged();
+        }
+        this.target.replaceSync(players.values());
+    }
+
+    private @Nullable UUID readCheckpoint() throws IOException {
+        if (!Files.isRegularFile(this.checkpointFile)) {
+            return null;
+        }
+        return UUID.fromString(Files.readString(this.checkpointFile).trim());
+    }
+
+    private void writeCheckpoint(final UUID lastMigrated) throws IOException {
+        final Path temp = this.checkpointFile.resolveSibling(this.checkpointFile.getFileName() + ".tmp");
+        Files.writeString(temp, lastMigrated.toString());
+        Files.move(temp, this.checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @FunctionalInterface
+    public interface Progress {
+
+        /**
+         * Called with the progress of the migration.
+         *
+         * @param migrated players copied so far
+         * @param total    players to copy in this run
+         */
+        void progress(int migrated, int total);
+
+    }
+
+}
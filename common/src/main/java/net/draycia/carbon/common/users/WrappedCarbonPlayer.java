@@ -19,13 +19,11 @@
  */
 package net.draycia.carbon.common.users;
 
-import io.github.miniplaceholders.api.MiniPlaceholders;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.UUID;
-import java.util.function.Predicate;
 import net.draycia.carbon.api.channels.ChatChannel;
 import net.draycia.carbon.api.users.CarbonPlayer;
 import net.draycia.carbon.api.util.InventorySlot;
@@ -33,8 +31,6 @@ import net.kyori.adventure.identity.Identity;
 import net.kyori.adventure.key.Key;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.TextReplacementConfig;
-import net.kyori.adventure.text.format.TextDecoration;
-import net.kyori.adventure.text.minimessage.MiniMessage;
 import net.kyori.adventure.text.minimessage.tag.resolver.TagResolver;
 import net.kyori.adventure.text.minimessage.tag.standard.StandardTags;
 import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
@@ -82,56 +78,6 @@ public abstract class WrappedCarbonPlayer implements CarbonPlayer {
         return LuckPermsProvider.get().getUserManager().getUser(this.uuid());
     }
 
-    // TODO: replace this with something cleaner
-    private boolean miniPlaceholdersLoaded() {
-        try {
-            Class.forName("io.github.miniplaceholders.api.MiniPlaceholders");
-            return true;
-        } catch (final ClassNotFoundException ignored) {
-        }
-
-        return false;
-    }
-
-    public Component parseMessageTags(final String message) {
-        final TagResolver.Builder resolver = TagResolver.builder();
-
-        if (this.miniPlaceholdersLoaded() && this.hasPermission("carbon.chatplaceholders")) {
-            resolver.resolver(MiniPlaceholders.getGlobalPlaceholders());
-            resolver.resolver(MiniPlaceholders.getAudiencePlaceholders(this));
-        }
-
-        return parseMessageTags(message, this::hasPermission, resolver);
-    }
-
-    protected static Component parseMessageTags(final String message, final Predicate<String> permission, final TagResolver.Builder resolver) {
-        if (!permission.test("carbon.messagetags")) {
-            return Component.text(message);
-        }
-
-        for (final Map.Entry<String, TagResolver> entry : DEFAULT_TAGS.entrySet()) {
-            if (permission.test("carbon.messagetags." + entry.getKey())) {
-                resolver.resolver(entry.getValue());
-            }
-        }
-
-        for (final TextDecoration decoration : TextDecoration.values()) {
-            if (!permission.test("carbon.messagetags." + decoration.name())) {
-                continue;
-            }
-
-            resolver.resolver(StandardTags.decorations(decoration));
-        }
-
-        final MiniMessage miniMessage = MiniMessage.builder().tags(resolver.build()).build();
-
-        return miniMessage.deserialize(message);
-    }
-
-    public static Component parseMessageTags(final String message, final Predicate<String> permission) {
-        return parseMessageTags(message, permission, TagResolver.builder());
-    }
-
     @Override
     public boolean awareOf(final CarbonPlayer other) {
         if (other.vanished()) {
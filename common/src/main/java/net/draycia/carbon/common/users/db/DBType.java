@@ -33,5 +33,6 @@ public final class DBType {
 
     public static final DBType MYSQL = new DBType("queries/mysql/");
     public static final DBType POSTGRESQL = new DBType("queries/postgresql/");
+    public static final DBType H2 = new DBType("queries/h2/");
 
 }
@@ -19,10 +19,30 @@
  */
 package net.draycia.carbon.common.users.db;
 
+import com.google.common.collect.Lists;
 import com.google.inject.MembersInjector;
 import com.google.inject.Provider;
+import com.zaxxer.hikari.HikariDataSource;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
 import net.draycia.carbon.api.channels.ChannelRegistry;
+import net.draycia.carbon.common.config.DatabaseSettings;
+import net.draycia.carbon.common.config.UserCacheSettings;
 import net.draycia.carbon.common.messaging.MessagingManager;
 import net.draycia.carbon.common.messaging.packets.PacketFactory;
 import net.draycia.carbon.common.users.CachingUserManager;
@@ -31,69 +51,367 @@ import net.draycia.carbon.common.users.ProfileResolver;
 import net.kyori.adventure.key.Key;
 import org.apache.logging.log4j.Logger;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.framework.qual.DefaultQualifier;
+import org.jdbi.v3.core.Handle;
 import org.jdbi.v3.core.Jdbi;
 import org.jdbi.v3.core.statement.PreparedBatch;
-import org.jdbi.v3.core.statement.Update;
 
 @DefaultQualifier(NonNull.class)
 public abstract class DatabaseUserManager extends CachingUserManager {
 
+    private static final int FLUSH_BATCH_SIZE = 100;
+    private static final int LOAD_BATCH_SIZE = 500;
+
     protected final Jdbi jdbi;
+    private final HikariDataSource dataSource;
     protected final QueriesLocator locator;
     protected final ChannelRegistry channelRegistry;
+    // Players with changes that have not been written yet. Property updates only mark the player here,
+    // the periodic flush then writes each player once no matter how many times it changed.
+    private final Map<UUID, CarbonPlayerCommon> dirtyPlayers = new ConcurrentHashMap<>();
+    private final ScheduledFuture<?> flushTask;
 
     protected DatabaseUserManager(
         final Jdbi jdbi,
+        final HikariDataSource dataSource,
         final QueriesLocator locator,
         final Logger logger,
         final ProfileResolver profileResolver,
         final MembersInjector<CarbonPlayerCommon> playerInjector,
         final Provider<MessagingManager> messagingManager,
         final PacketFactory packetFactory,
-        final ChannelRegistry channelRegistry
+        final ChannelRegistry channelRegistry,
+        final ScheduledExecutorService periodicTasks,
+        final DatabaseSettings databaseSettings,
+        final UserCacheSettings cacheSettings
     ) {
         super(
             logger,
             profileResolver,
             playerInjector,
             messagingManager,
-            packetFactory
+            packetFactory,
+            cacheSettings
         );
         this.jdbi = jdbi;
+        this.dataSource = dataSource;
         this.locator = locator;
         this.channelRegistry = channelRegistry;
+
+        final long saveInterval = Math.max(1, databaseSettings.saveInterval());
+        this.flushTask = periodicTasks.scheduleWithFixedDelay(
+            this::flushDirtyPlayers,
+            saveInterval,
+            saveInterval,
+            TimeUnit.SECONDS
+        );
+    }
+
+    @Override
+    protected CarbonPlayerCommon loadOrCreate(final UUID uuid) {
+        return Objects.requireNonNull(this.loadOrCreate(List.of(uuid)).get(uuid), "player");
+    }
+
+    @Override
+    protected Map<UUID, CarbonPlayerCommon> loadOrCreate(final Collection<UUID> uuids) {
+        final Map<UUID, CarbonPlayerCommon> players = new HashMap<>();
+
+        // select-player returns the ignores and left channels as aggregated columns, so each chunk is a single round trip
+        this.jdbi.useHandle(handle -> {
+            for (final List<UUID> chunk : Lists.partition(List.copyOf(uuids), LOAD_BATCH_SIZE)) {
+                handle.createQuery(this.locator.query("select-player"))
+                    .bindList("ids", chunk.stream().map(this::idArgument).toList())
+                    .mapTo(CarbonPlayerCommon.class)
+                    .forEach(player -> players.put(player.uuid(), player));
+            }
+        });
+
+        for (final CarbonPlayerCommon player : players.values()) {
+            player.leftChannels().forEach(channel -> {
+                if (this.channelRegistry.channel(channel) == null) {
+                    player.joinChannel(channel, true);
+                }
+            });
+        }
+        for (final UUID uuid : uuids) {
+            players.computeIfAbsent(uuid, id -> new CarbonPlayerCommon(null, id));
+        }
+
+        return players;
+    }
+
+    @Override
+    protected void playerLoaded(final CarbonPlayerCommon player) {
+        player.registerPropertyUpdateListener(() -> this.dirtyPlayers.put(player.uuid(), player));
+    }
+
+    @Override
+    public CompletableFuture<Void> saveIfNeeded(final CarbonPlayerCommon player) {
+        // A full save supersedes any pending write-behind flush
+        this.dirtyPlayers.remove(player.uuid(), player);
+        return super.saveIfNeeded(player);
+    }
+
+    @Override
+    public void shutdown() {
+        this.flushTask.cancel(false);
+        this.drainDirtyPlayers();
+        super.shutdown();
+        this.closingDatabase();
+        this.dataSource.close();
+    }
+
+    /**
+     * Called on shutdown after all players are saved, before the connection pool is closed.
+     */
+    protected void closingDatabase() {
+    }
+
+    @Override
+    protected List<UUID> storedPlayers() {
+        return this.jdbi.withHandle(handle -> handle.createQuery(this.locator.query("select-player-ids"))
+            .mapTo(String.class)
+            .map(UUID::fromString)
+            .list());
     }
 
     @Override
     public final void saveSync(final CarbonPlayerCommon player) {
-        this.jdbi.withHandle(handle -> {
-            this.bindPlayerArguments(handle.createUpdate(this.locator.query("save-player")), player)
-                .execute();
+        this.saveSync(List.of(player));
+    }
 
-            if (!player.ignoredPlayers().isEmpty()) {
-                final PreparedBatch batch = handle.prepareBatch(this.locator.query("save-ignores"));
+    /**
+     * Saves the pending changes of the given players in a single transaction, batching the statements for all players.
+     *
+     * <p>Only changed columns are written, and set members are inserted or deleted individually.
+     * If the transaction fails, the changes are restored on the players before rethrowing.</p>
+     *
+     * @param players players to save
+     */
+    @Override
+    protected final void saveSync(final Collection<CarbonPlayerCommon> players) {
+        final Map<CarbonPlayerCommon, CarbonPlayerCommon.Changes> changes = takeChanges(players);
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        try {
+            this.jdbi.useTransaction(handle -> this.save(handle, changes));
+        } catch (final RuntimeException ex) {
+            changes.forEach(CarbonPlayerCommon::restoreChanges);
+            throw ex;
+        }
+    }
 
-                for (final UUID ignoredPlayer : player.ignoredPlayers()) {
-                    batch.bind("id", player.uuid()).bind("ignoredplayer", ignoredPlayer).add();
+    /**
+     * Saves the given players like {@link #saveSync(Collection)}, first deleting their stored ignores and left channels
+     * in the same transaction, so set members only present in storage don't survive.
+     *
+     * @param players players to save, with every property marked changed
+     */
+    @Override
+    protected final void replaceSync(final Collection<CarbonPlayerCommon> players) {
+        final Map<CarbonPlayerCommon, CarbonPlayerCommon.Changes> changes = takeChanges(players);
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        final List<Object> ids = changes.keySet().stream().map(player -> this.idArgument(player.uuid())).toList();
+        try {
+            this.jdbi.useTransaction(handle -> {
+                for (final String query : List.of("delete-player-ignores", "delete-player-leftchannels")) {
+                    handle.createUpdate(this.locator.query(query))
+                        .bindList("ids", ids)
+                        .execute();
                 }
+                this.save(handle, changes);
+            });
+        } catch (final RuntimeException ex) {
+            changes.forEach(CarbonPlayerCommon::restoreChanges);
+            throw ex;
+        }
+    }
 
-                batch.execute();
+    private static Map<CarbonPlayerCommon, CarbonPlayerCommon.Changes> takeChanges(final Collection<CarbonPlayerCommon> players) {
+        final Map<CarbonPlayerCommon, CarbonPlayerCommon.Changes> changes = new LinkedHashMap<>();
+        for (final CarbonPlayerCommon player : players) {
+            final CarbonPlayerCommon.Changes playerChanges = player.takeChanges();
+            if (!playerChanges.isEmpty()) {
+                changes.put(player, playerChanges);
             }
-            if (!player.leftChannels().isEmpty()) {
-                final PreparedBatch batch = handle.prepareBatch(this.locator.query("save-leftchannels"));
+        }
+        return changes;
+    }
 
-                for (final Key leftChannel : player.leftChannels()) {
-                    batch.bind("id", player.uuid()).bind("channel", leftChannel).add();
-                }
+    private void save(final Handle handle, final Map<CarbonPlayerCommon, CarbonPlayerCommon.Changes> changes) {
+        // Players with the same changed columns share a statement
+        final Map<List<PlayerColumn>, PreparedBatch> playerBatches = new HashMap<>();
+        final PreparedBatch insertIgnores = handle.prepareBatch(this.locator.query("save-ignores"));
+        final PreparedBatch deleteIgnores = handle.prepareBatch(this.locator.query("delete-ignores"));
+        final PreparedBatch insertLeftChannels = handle.prepareBatch(this.locator.query("save-leftchannels"));
+        final PreparedBatch deleteLeftChannels = handle.prepareBatch(this.locator.query("delete-leftchannels"));
+
+        for (final Map.Entry<CarbonPlayerCommon, CarbonPlayerCommon.Changes> entry : changes.entrySet()) {
+            final CarbonPlayerCommon player = entry.getKey();
+            final CarbonPlayerCommon.Changes playerChanges = entry.getValue();
+
+            final List<PlayerColumn> columns = PlayerColumn.changed(player, playerChanges);
+            final PreparedBatch playerBatch = playerBatches.computeIfAbsent(columns, $ -> this.prepareSavePlayer(handle, columns));
+            playerBatch.bind("id", player.uuid());
+            for (final PlayerColumn column : columns) {
+                playerBatch.bind(column.column, column.value.apply(player));
+            }
+            playerBatch.add();
+
+            for (final UUID ignoredPlayer : playerChanges.ignoredPlayers().added()) {
+                insertIgnores.bind("id", player.uuid()).bind("ignoredplayer", ignoredPlayer).add();
+            }
+            for (final UUID ignoredPlayer : playerChanges.ignoredPlayers().removed()) {
+                deleteIgnores.bind("id", player.uuid()).bind("ignoredplayer", ignoredPlayer).add();
+            }
+            for (final Key leftChannel : playerChanges.leftChannels().added()) {
+                insertLeftChannels.bind("id", player.uuid()).bind("channel", leftChannel).add();
+            }
+            for (final Key leftChannel : playerChanges.leftChannels().removed()) {
+                deleteLeftChannels.bind("id", player.uuid()).bind("channel", leftChannel).add();
+            }
+        }
 
+        // The player row goes first so it exists before any child rows
+        for (final PreparedBatch batch : playerBatches.values()) {
+            batch.execute();
+        }
+        for (final PreparedBatch batch : List.of(insertIgnores, deleteIgnores, insertLeftChannels, deleteLeftChannels)) {
+            if (batch.size() > 0) {
                 batch.execute();
             }
-            // TODO: save ignoredplayers
-            return null;
-        });
+        }
+    }
+
+    private PreparedBatch prepareSavePlayer(final Handle handle, final List<PlayerColumn> columns) {
+        final List<String> columnNames = new ArrayList<>(columns.size());
+        final StringBuilder names = new StringBuilder();
+        final StringBuilder values = new StringBuilder();
+        for (final PlayerColumn column : columns) {
+            columnNames.add(column.column);
+            names.append(", ").append(column.column);
+            values.append(", :").append(column.column);
+        }
+        return this.defineUpsert(handle.prepareBatch(this.locator.query("save-player"))
+            .define("columns", names.toString())
+            .define("values", values.toString()), columnNames);
+    }
+
+    private void flushDirtyPlayers() {
+        if (this.dirtyPlayers.isEmpty()) {
+            return;
+        }
+
+        // Each worker saves its own players, so flushes stay ordered with other loads and saves for those players
+        final Map<Executor, List<CarbonPlayerCommon>> batches = new HashMap<>();
+        final Iterator<CarbonPlayerCommon> iterator = this.dirtyPlayers.values().iterator();
+        while (iterator.hasNext()) {
+            // Remove before saving, so changes made while the batch is written mark the player dirty again
+            final CarbonPlayerCommon player = iterator.next();
+            iterator.remove();
+            batches.computeIfAbsent(this.executor(player.uuid()), $ -> new ArrayList<>()).add(player);
+        }
+
+        batches.forEach((executor, players) -> executor.execute(() -> {
+            for (final List<CarbonPlayerCommon> batch : Lists.partition(players, FLUSH_BATCH_SIZE)) {
+                this.flushBatch(batch);
+            }
+        }));
     }
 
-    abstract protected Update bindPlayerArguments(final Update update, final CarbonPlayerCommon player);
+    // Players can be dirty without being cached, after another server saved them, so they aren't covered by loggedOut
+    private void drainDirtyPlayers() {
+        final List<CarbonPlayerCommon> players = new ArrayList<>();
+        final Iterator<CarbonPlayerCommon> iterator = this.dirtyPlayers.values().iterator();
+        while (iterator.hasNext()) {
+            players.add(iterator.next());
+            iterator.remove();
+        }
+
+        for (final List<CarbonPlayerCommon> batch : Lists.partition(players, FLUSH_BATCH_SIZE)) {
+            try {
+                this.saveSync(batch);
+                this.saveCompleted(batch);
+            } catch (final Exception ex) {
+                this.logger.warn("Exception saving data for {} players on shutdown", batch.size(), ex);
+            }
+        }
+    }
+
+    private void flushBatch(final List<CarbonPlayerCommon> batch) {
+        try {
+            this.saveSync(batch);
+            this.saveCompleted(batch);
+        } catch (final Exception ex) {
+            this.logger.warn("Exception saving data for {} players, will retry on next flush", batch.size(), ex);
+            for (final CarbonPlayerCommon player : batch) {
+                this.dirtyPlayers.putIfAbsent(player.uuid(), player);
+            }
+        }
+    }
+
+    /**
+     * Define what else save-player needs to update an existing player row with the given columns.
+     * Nothing is defined by default, for queries that only write the listed columns.
+     *
+     * @param batch   save-player batch, with the columns and values defined
+     * @param columns written column names
+     * @return batch
+     */
+    protected PreparedBatch defineUpsert(final PreparedBatch batch, final List<String> columns) {
+        return batch;
+    }
+
+    /**
+     * Get the value to bind for a player id in an id list, such as the one of select-player.
+     *
+     * @param uuid player id
+     * @return bindable id
+     */
+    abstract protected Object idArgument(final UUID uuid);
+
+    private enum PlayerColumn {
+        // Written whenever the name is resolved, so the row follows name changes.
+        // Unresolved names are skipped rather than looked up, so they don't overwrite the stored name.
+        USERNAME("username", (player, $) -> player.usernameIfResolved() != null, CarbonPlayerCommon::usernameIfResolved),
+        MUTED("muted", ($, changes) -> changes.muted(), CarbonPlayerCommon::muted),
+        DEAFENED("deafened", ($, changes) -> changes.deafened(), CarbonPlayerCommon::deafened),
+        SELECTED_CHANNEL("selectedchannel", ($, changes) -> changes.selectedChannel(), CarbonPlayerCommon::selectedChannelKey),
+        DISPLAY_NAME("displayname", ($, changes) -> changes.displayName(), CarbonPlayerCommon::displayNameRaw),
+        SPYING("spying", ($, changes) -> changes.spying(), CarbonPlayerCommon::spying);
+
+        private static final PlayerColumn[] VALUES = values();
+
+        private final String column;
+        private final BiPredicate<CarbonPlayerCommon, CarbonPlayerCommon.Changes> changed;
+        private final Function<CarbonPlayerCommon, @Nullable Object> value;
+
+        PlayerColumn(
+            final String column,
+            final BiPredicate<CarbonPlayerCommon, CarbonPlayerCommon.Changes> changed,
+            final Function<CarbonPlayerCommon, @Nullable Object> value
+        ) {
+            this.column = column;
+            this.changed = changed;
+            this.value = value;
+        }
+
+        static List<PlayerColumn> changed(final CarbonPlayerCommon player, final CarbonPlayerCommon.Changes changes) {
+            final List<PlayerColumn> columns = new ArrayList<>(VALUES.length);
+            for (final PlayerColumn column : VALUES) {
+                if (column.changed.test(player, changes)) {
+                    columns.add(column);
+                }
+            }
+            return columns;
+        }
+
+    }
 
 }
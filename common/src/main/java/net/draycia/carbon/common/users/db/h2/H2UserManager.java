@@ -0,0 +1,184 @@
+/*
+ * CarbonChat
+ *
+ * Copyright (c) 2023 Josua Parks (Vicarious)
+ *                    Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.draycia.carbon.common.users.db.h2;
+
+import com.google.inject.Inject;
+import com.google.inject.MembersInjector;
+import com.google.inject.Provider;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.concurrent.ScheduledExecutorService;
+import net.draycia.carbon.api.CarbonChat;
+import net.draycia.carbon.api.channels.ChannelRegistry;
+import net.draycia.carbon.common.DataDirectory;
+import net.draycia.carbon.common.PeriodicTasks;
+import net.draycia.carbon.common.config.ConfigFactory;
+import net.draycia.carbon.common.config.DatabaseSettings;
+import net.draycia.carbon.common.config.UserCacheSettings;
+import net.draycia.carbon.common.messaging.MessagingManager;
+import net.draycia.carbon.common.messaging.packets.PacketFactory;
+import net.draycia.carbon.common.users.CarbonPlayerCommon;
+import net.draycia.carbon.common.users.ProfileResolver;
+import net.draycia.carbon.common.users.db.ComponentArgumentFactory;
+import net.draycia.carbon.common.users.db.DBType;
+import net.draycia.carbon.common.users.db.DatabaseUserManager;
+import net.draycia.carbon.common.users.db.KeyArgumentFactory;
+import net.draycia.carbon.common.users.db.KeyColumnMapper;
+import net.draycia.carbon.common.users.db.QueriesLocator;
+import net.draycia.carbon.common.users.db.postgresql.PostgreSQLPlayerRowMapper;
+import net.draycia.carbon.common.util.ConcurrentUtil;
+import net.draycia.carbon.common.util.SQLDrivers;
+import org.apache.logging.log4j.Logger;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.framework.qual.DefaultQualifier;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.internal.database.h2.H2DatabaseType;
+import org.flywaydb.core.internal.plugin.PluginRegister;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.sqlobject.SqlObjectPlugin;
+
+@DefaultQualifier(NonNull.class)
+public final class H2UserManager extends DatabaseUserManager {
+
+    private H2UserManager(
+        final Jdbi jdbi,
+        final HikariDataSource dataSource,
+        final Logger logger,
+        final ProfileResolver profileResolver,
+        final MembersInjector<CarbonPlayerCommon> playerInjector,
+        final Provider<MessagingManager> messagingManager,
+        final PacketFactory packetFactory,
+        final ChannelRegistry channelRegistry,
+        final ScheduledExecutorService periodicTasks,
+        final DatabaseSettings databaseSettings,
+        final UserCacheSettings cacheSettings
+    ) {
+        super(
+            jdbi,
+            dataSource,
+            new QueriesLocator(DBType.H2),
+            logger,
+            profileResolver,
+            playerInjector,
+            messagingManager,
+            packetFactory,
+            channelRegistry,
+            periodicTasks,
+            databaseSettings,
+            cacheSettings
+        );
+    }
+
+    @Override
+    protected Object idArgument(final UUID uuid) {
+        return uuid;
+    }
+
+    @Override
+    protected void closingDatabase() {
+        // Rewrite the database file without free space, and close it now that everything is saved
+        try {
+            this.jdbi.useHandle(handle -> handle.execute("SHUTDOWN COMPACT"));
+        } catch (final Exception ex) {
+            this.logger.warn("Failed to compact the player database", ex);
+        }
+    }
+
+    public static final class Factory {
+
+        private final Path databaseFile;
+        private final DatabaseSettings databaseSettings;
+        private final UserCacheSettings cacheSettings;
+        private final Logger logger;
+        private final ProfileResolver profileResolver;
+        private final MembersInjector<CarbonPlayerCommon> playerInjector;
+        private final Provider<MessagingManager> messagingManager;
+        private final PacketFactory packetFactory;
+        private final ChannelRegistry channelRegistry;
+        private final ScheduledExecutorService periodicTasks;
+
+        @Inject
+        private Factory(
+            final @DataDirectory Path dataDirectory,
+            final ChannelRegistry channelRegistry,
+            final ConfigFactory configFactory,
+            final Logger logger,
+            final ProfileResolver profileResolver,
+            final MembersInjector<CarbonPlayerCommon> playerInjector,
+            final Provider<MessagingManager> messagingManager,
+            final PacketFactory packetFactory,
+            final @PeriodicTasks ScheduledExecutorService periodicTasks
+        ) {
+            this.databaseFile = dataDirectory.resolve("carbon-users").toAbsolutePath();
+            this.channelRegistry = channelRegistry;
+            this.databaseSettings = configFactory.primaryConfig().databaseSettings();
+            this.cacheSettings = configFactory.primaryConfig().userCacheSettings();
+            this.logger = logger;
+            this.profileResolver = profileResolver;
+            this.playerInjector = playerInjector;
+            this.messagingManager = messagingManager;
+            this.packetFactory = packetFactory;
+            this.periodicTasks = periodicTasks;
+        }
+
+        public H2UserManager create() {
+            SQLDrivers.loadFrom(this.getClass().getClassLoader());
+            // Flyway keeps plugins globally, so only register it for the first manager created
+            synchronized (PluginRegister.REGISTERED_PLUGINS) {
+                if (PluginRegister.REGISTERED_PLUGINS.stream().noneMatch(H2DatabaseType.class::isInstance)) {
+                    PluginRegister.REGISTERED_PLUGINS.add(new H2DatabaseType());
+                }
+            }
+
+            final HikariConfig hikariConfig = new HikariConfig();
+            hikariConfig.setMaximumPoolSize(4);
+            // A single file database, H2 keeps writes atomic and compacts the file in the background.
+            // It is closed by our shutdown instead of the JVM shutdown hook, so the final saves can still run.
+            hikariConfig.setJdbcUrl("jdbc:h2:file:" + this.databaseFile + ";DB_CLOSE_ON_EXIT=FALSE");
+            hikariConfig.setThreadFactory(ConcurrentUtil.carbonThreadFactory(this.logger, "H2UserManagerHCP"));
+
+            final HikariDataSource dataSource = new HikariDataSource(hikariConfig);
+
+            Flyway.configure(CarbonChat.class.getClassLoader())
+                .baselineVersion("0")
+                .baselineOnMigrate(true)
+                .locations("queries/migrations/h2")
+                .dataSource(dataSource)
+                .validateMigrationNaming(true)
+                .validateOnMigrate(true)
+                .load()
+                .migrate();
+
+            // H2 reads UUIDs and aggregated strings the same way as PostgreSQL
+            final Jdbi jdbi = Jdbi.create(dataSource)
+                .registerArgument(new ComponentArgumentFactory())
+                .registerArgument(new KeyArgumentFactory())
+                .registerColumnMapper(new KeyColumnMapper())
+                .registerRowMapper(new PostgreSQLPlayerRowMapper())
+                .installPlugin(new SqlObjectPlugin());
+
+            return new H2UserManager(jdbi, dataSource, this.logger, this.profileResolver, this.playerInjector, this.messagingManager, this.packetFactory, this.channelRegistry, this.periodicTasks, this.databaseSettings, this.cacheSettings);
+        }
+
+    }
+
+}
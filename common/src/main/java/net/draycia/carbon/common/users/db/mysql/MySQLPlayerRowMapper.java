@@ -19,10 +19,12 @@
  */
 package net.draycia.carbon.common.users.db.mysql;
 
+import com.google.common.base.Splitter;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.UUID;
 import net.draycia.carbon.common.users.CarbonPlayerCommon;
+import net.draycia.carbon.common.util.FastUuidSansHyphens;
 import net.draycia.carbon.common.util.Strings;
 import net.kyori.adventure.key.Key;
 import net.kyori.adventure.text.serializer.gson.GsonComponentSerializer;
@@ -33,6 +35,8 @@ import org.jdbi.v3.core.statement.StatementContext;
 
 public class MySQLPlayerRowMapper implements RowMapper<CarbonPlayerCommon> {
 
+    private static final Splitter SPLITTER = Splitter.on(',').trimResults().omitEmptyStrings();
+
     @Override
     public CarbonPlayerCommon map(final ResultSet rs, final StatementContext ctx) throws SQLException {
         final String id = Strings.trim(rs.getString("id"));
@@ -41,7 +45,7 @@ public class MySQLPlayerRowMapper implements RowMapper<CarbonPlayerCommon> {
         final @Nullable @Subst("carbon:global") String selectedChannel = Strings.trim(rs.getString("selectedchannel"));
         final @Nullable String displayName = Strings.trim(rs.getString("displayname"));
 
-        return new CarbonPlayerCommon(
+        final CarbonPlayerCommon player = new CarbonPlayerCommon(
             rs.getBoolean("muted"),
             rs.getBoolean("deafened"),
             selectedChannel == null ? null : Key.key(selectedChannel),
@@ -52,6 +56,21 @@ public class MySQLPlayerRowMapper implements RowMapper<CarbonPlayerCommon> {
             whisperReplyTarget == null ? null : UUID.fromString(whisperReplyTarget),
             rs.getBoolean("spying")
         );
+
+        final @Nullable String ignoredPlayers = rs.getString("ignoredplayers");
+        if (ignoredPlayers != null) {
+            for (final String ignoredPlayer : SPLITTER.split(ignoredPlayers)) {
+                player.ignoring(FastUuidSansHyphens.parseUuid(ignoredPlayer), true, true);
+            }
+        }
+        final @Nullable String leftChannels = rs.getString("leftchannels");
+        if (leftChannels != null) {
+            for (final @Subst("carbon:global") String leftChannel : SPLITTER.split(leftChannels)) {
+                player.leaveChannel(Key.key(leftChannel), true);
+            }
+        }
+
+        return player;
     }
 
 }
@@ -24,14 +24,18 @@ import com.google.inject.MembersInjector;
 import com.google.inject.Provider;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
-import java.util.Optional;
+import java.nio.ByteBuffer;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.util.List;
 import java.util.UUID;
-import javax.sql.DataSource;
+import java.util.concurrent.ScheduledExecutorService;
 import net.draycia.carbon.api.CarbonChat;
 import net.draycia.carbon.api.channels.ChannelRegistry;
-import net.draycia.carbon.api.channels.ChatChannel;
+import net.draycia.carbon.common.PeriodicTasks;
 import net.draycia.carbon.common.config.ConfigFactory;
 import net.draycia.carbon.common.config.DatabaseSettings;
+import net.draycia.carbon.common.config.UserCacheSettings;
 import net.draycia.carbon.common.messaging.MessagingManager;
 import net.draycia.carbon.common.messaging.packets.PacketFactory;
 import net.draycia.carbon.common.users.CarbonPlayerCommon;
@@ -44,95 +48,101 @@ import net.draycia.carbon.common.users.db.KeyColumnMapper;
 import net.draycia.carbon.common.users.db.QueriesLocator;
 import net.draycia.carbon.common.util.ConcurrentUtil;
 import net.draycia.carbon.common.util.SQLDrivers;
-import net.kyori.adventure.key.Key;
 import org.apache.logging.log4j.Logger;
 import org.checkerframework.checker.nullness.qual.NonNull;
-import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.framework.qual.DefaultQualifier;
 import org.flywaydb.core.Flyway;
 import org.jdbi.v3.core.Jdbi;
-import org.jdbi.v3.core.statement.Update;
+import org.jdbi.v3.core.statement.PreparedBatch;
 import org.jdbi.v3.sqlobject.SqlObjectPlugin;
 
 @DefaultQualifier(NonNull.class)
 public final class MySQLUserManager extends DatabaseUserManager {
 
+    private final boolean rowAlias;
+
     private MySQLUserManager(
         final Jdbi jdbi,
+        final HikariDataSource dataSource,
         final Logger logger,
         final ProfileResolver profileResolver,
         final MembersInjector<CarbonPlayerCommon> playerInjector,
         final Provider<MessagingManager> messagingManager,
         final PacketFactory packetFactory,
-        final ChannelRegistry channelRegistry
+        final ChannelRegistry channelRegistry,
+        final ScheduledExecutorService periodicTasks,
+        final DatabaseSettings databaseSettings,
+        final UserCacheSettings cacheSettings,
+        final boolean rowAlias
     ) {
         super(
             jdbi,
+            dataSource,
             new QueriesLocator(DBType.MYSQL),
             logger,
             profileResolver,
             playerInjector,
             messagingManager,
             packetFactory,
-            channelRegistry
+            channelRegistry,
+            periodicTasks,
+            databaseSettings,
+            cacheSettings
         );
+        this.rowAlias = rowAlias;
     }
 
     @Override
-    protected CarbonPlayerCommon loadOrCreate(final UUID uuid) {
-        return this.jdbi.withHandle(handle -> {
-            final Optional<CarbonPlayerCommon> carbonPlayerCommon = handle.createQuery(this.locator.query("select-player"))
-                .bind("id", uuid)
-                .mapTo(CarbonPlayerCommon.class)
-                .findOne();
-
-            if (carbonPlayerCommon.isEmpty()) {
-                return new CarbonPlayerCommon(null, uuid);
-            }
-
-            handle.createQuery(this.locator.query("select-ignores"))
-                .bind("id", uuid)
-                .mapTo(UUID.class)
-                .forEach(ignoredPlayer -> carbonPlayerCommon.get().ignoring(ignoredPlayer, true, true));
-            handle.createQuery(this.locator.query("select-leftchannels"))
-                .bind("id", uuid)
-                .mapTo(Key.class)
-                .forEach(channel -> {
-                    final @Nullable ChatChannel chatChannel = this.channelRegistry.channel(channel);
-
-                    if (chatChannel == null) {
-                        return;
-                    }
-
-                    carbonPlayerCommon.get().leaveChannel(chatChannel, true);
-                });
-            return carbonPlayerCommon.get();
-        });
+    protected PreparedBatch defineUpsert(final PreparedBatch batch, final List<String> columns) {
+        final StringBuilder assignments = new StringBuilder();
+        for (final String column : columns) {
+            assignments.append(", ").append(column)
+                .append(this.rowAlias ? " = new." + column : " = VALUES(" + column + ")");
+        }
+        return batch
+            .define("rowalias", this.rowAlias ? " AS new" : "")
+            .define("assignments", assignments.toString());
+    }
+
+    // VALUES() in ON DUPLICATE KEY UPDATE is deprecated since MySQL 8.0.20, in favor of row aliases added in 8.0.19.
+    // MariaDB only supports VALUES().
+    private static boolean supportsRowAlias(final DatabaseMetaData metaData) throws SQLException {
+        final String version = metaData.getDatabaseProductVersion();
+        if (metaData.getDatabaseProductName().contains("MariaDB") || version.contains("MariaDB")) {
+            return false;
+        }
+
+        final String[] parts = version.split("[^0-9]+", 4);
+        try {
+            final int major = Integer.parseInt(parts[0]);
+            final int minor = parts.length > 1 ? Integer.parseInt(parts[1]) : 0;
+            final int patch = parts.length > 2 ? Integer.parseInt(parts[2]) : 0;
+            return major > 8 || (major == 8 && (minor > 0 || patch >= 19));
+        } catch (final NumberFormatException ex) {
+            return false;
+        }
     }
 
     @Override
-    protected Update bindPlayerArguments(final Update update, final CarbonPlayerCommon player) {
-        return update
-            .bind("id", player.uuid())
-            .bind("muted", player.muted())
-            .bind("deafened", player.deafened())
-            .bind("selectedchannel", player.selectedChannelKey())
-            .bind("username", player.username())
-            .bind("displayname", player.displayNameRaw())
-            .bind("lastwhispertarget", player.lastWhisperTarget())
-            .bind("whisperreplytarget", player.whisperReplyTarget())
-            .bind("spying", player.spying());
+    protected Object idArgument(final UUID uuid) {
+        // Bind the raw BINARY(16) value, UNHEX can't be applied to each element of a bound list
+        return ByteBuffer.allocate(16)
+            .putLong(uuid.getMostSignificantBits())
+            .putLong(uuid.getLeastSignificantBits())
+            .array();
     }
 
     public static final class Factory {
 
         private final DatabaseSettings databaseSettings;
+        private final UserCacheSettings cacheSettings;
         private final Logger logger;
         private final ProfileResolver profileResolver;
         private final MembersInjector<CarbonPlayerCommon> playerInjector;
         private final Provider<MessagingManager> messagingManager;
         private final PacketFactory packetFactory;
         private final ChannelRegistry channelRegistry;
+        private final ScheduledExecutorService periodicTasks;
 
         @Inject
         private Factory(
@@ -142,28 +152,43 @@ public final class MySQLUserManager extends DatabaseUserManager {
             final ProfileResolver profileResolver,
             final MembersInjector<CarbonPlayerCommon> playerInjector,
             final Provider<MessagingManager> messagingManager,
-            final PacketFactory packetFactory
+            final PacketFactory packetFactory,
+            final @PeriodicTasks ScheduledExecutorService periodicTasks
         ) {
             this.channelRegistry = channelRegistry;
             this.databaseSettings = configFactory.primaryConfig().databaseSettings();
+            this.cacheSettings = configFactory.primaryConfig().userCacheSettings();
             this.logger = logger;
             this.profileResolver = profileResolver;
             this.playerInjector = playerInjector;
             this.messagingManager = messagingManager;
             this.packetFactory = packetFactory;
+            this.periodicTasks = periodicTasks;
         }
 
         public MySQLUserManager create() {
+            return this.create(this.databaseSettings);
+        }
+
+        /**
+         * Create a user manager connected with the given settings instead of the configured ones.
+         *
+         * @param databaseSettings connection settings
+         * @return new user manager
+         */
+        public MySQLUserManager create(final DatabaseSettings databaseSettings) {
             SQLDrivers.loadFrom(this.getClass().getClassLoader());
 
             final HikariConfig hikariConfig = new HikariConfig();
             hikariConfig.setMaximumPoolSize(20);
-            hikariConfig.setJdbcUrl(this.databaseSettings.url());
-            hikariConfig.setUsername(this.databaseSettings.username());
-            hikariConfig.setPassword(this.databaseSettings.password());
+            hikariConfig.setJdbcUrl(databaseSettings.url());
+            hikariConfig.setUsername(databaseSettings.username());
+            hikariConfig.setPassword(databaseSettings.password());
             hikariConfig.setThreadFactory(ConcurrentUtil.carbonThreadFactory(this.logger, "MySQLUserManagerHCP"));
+            // select-player aggregates ignores and left channels with GROUP_CONCAT, which truncates at 1024 characters by default
+            hikariConfig.setConnectionInitSql("SET SESSION group_concat_max_len = 1048576");
 
-            final DataSource dataSource = new HikariDataSource(hikariConfig);
+            final HikariDataSource dataSource = new HikariDataSource(hikariConfig);
 
             final Flyway flyway = Flyway.configure(CarbonChat.class.getClassLoader())
                 .baselineVersion("0")
@@ -186,7 +211,9 @@ public final class MySQLUserManager extends DatabaseUserManager {
                 .registerRowMapper(new MySQLPlayerRowMapper())
                 .installPlugin(new SqlObjectPlugin());
 
-            return new MySQLUserManager(jdbi, this.logger, this.profileResolver, this.playerInjector, this.messagingManager, this.packetFactory, this.channelRegistry);
+            final boolean rowAlias = jdbi.withHandle(handle -> supportsRowAlias(handle.getConnection().getMetaData()));
+
+            return new MySQLUserManager(jdbi, dataSource, this.logger, this.profileResolver, this.playerInjector, this.messagingManager, this.packetFactory, this.channelRegistry, this.periodicTasks, databaseSettings, this.cacheSettings, rowAlias);
         }
 
     }
@@ -19,6 +19,7 @@
  */
 package net.draycia.carbon.common.users.db.postgresql;
 
+import com.google.common.base.Splitter;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.UUID;
@@ -33,12 +34,14 @@ import org.jdbi.v3.core.statement.StatementContext;
 
 public class PostgreSQLPlayerRowMapper implements RowMapper<CarbonPlayerCommon> {
 
+    private static final Splitter SPLITTER = Splitter.on(',').trimResults().omitEmptyStrings();
+
     @Override
     public CarbonPlayerCommon map(final ResultSet rs, final StatementContext ctx) throws SQLException {
         final @Nullable @Subst("carbon:global") String selectedChannel = Strings.trim(rs.getString("selectedchannel"));
         final @Nullable String displayName = Strings.trim(rs.getString("displayname"));
 
-        return new CarbonPlayerCommon(
+        final CarbonPlayerCommon player = new CarbonPlayerCommon(
             rs.getBoolean("muted"),
             rs.getBoolean("deafened"),
             selectedChannel == null ? null : Key.key(selectedChannel),
@@ -49,6 +52,21 @@ public class PostgreSQLPlayerRowMapper implements RowMapper<CarbonPlayerCommon>
             rs.getObject("whisperreplytarget", UUID.class),
             rs.getBoolean("spying")
         );
+
+        final @Nullable String ignoredPlayers = rs.getString("ignoredplayers");
+        if (ignoredPlayers != null) {
+            for (final String ignoredPlayer : SPLITTER.split(ignoredPlayers)) {
+                player.ignoring(UUID.fromString(ignoredPlayer), true, true);
+            }
+        }
+        final @Nullable String leftChannels = rs.getString("leftchannels");
+        if (leftChannels != null) {
+            for (final @Subst("carbon:global") String leftChannel : SPLITTER.split(leftChannels)) {
+                player.leaveChannel(Key.key(leftChannel), true);
+            }
+        }
+
+        return player;
     }
 
 }
@@ -24,13 +24,15 @@ import com.google.inject.MembersInjector;
 import com.google.inject.Provider;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import java.util.List;
 import java.util.UUID;
-import javax.sql.DataSource;
+import java.util.concurrent.ScheduledExecutorService;
 import net.draycia.carbon.api.CarbonChat;
 import net.draycia.carbon.api.channels.ChannelRegistry;
-import net.draycia.carbon.api.channels.ChatChannel;
+import net.draycia.carbon.common.PeriodicTasks;
 import net.draycia.carbon.common.config.ConfigFactory;
 import net.draycia.carbon.common.config.DatabaseSettings;
+import net.draycia.carbon.common.config.UserCacheSettings;
 import net.draycia.carbon.common.messaging.MessagingManager;
 import net.draycia.carbon.common.messaging.packets.PacketFactory;
 import net.draycia.carbon.common.users.CarbonPlayerCommon;
@@ -43,16 +45,14 @@ import net.draycia.carbon.common.users.db.KeyColumnMapper;
 import net.draycia.carbon.common.users.db.QueriesLocator;
 import net.draycia.carbon.common.util.ConcurrentUtil;
 import net.draycia.carbon.common.util.SQLDrivers;
-import net.kyori.adventure.key.Key;
 import org.apache.logging.log4j.Logger;
 import org.checkerframework.checker.nullness.qual.NonNull;
-import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.framework.qual.DefaultQualifier;
 import org.flywaydb.core.Flyway;
 import org.flywaydb.core.internal.database.postgresql.PostgreSQLDatabaseType;
 import org.flywaydb.core.internal.plugin.PluginRegister;
 import org.jdbi.v3.core.Jdbi;
-import org.jdbi.v3.core.statement.Update;
+import org.jdbi.v3.core.statement.PreparedBatch;
 import org.jdbi.v3.postgres.PostgresPlugin;
 import org.jdbi.v3.sqlobject.SqlObjectPlugin;
 
@@ -61,81 +61,58 @@ public final class PostgreSQLUserManager extends DatabaseUserManager {
 
     private PostgreSQLUserManager(
         final Jdbi jdbi,
+        final HikariDataSource dataSource,
         final Logger logger,
         final ProfileResolver profileResolver,
         final MembersInjector<CarbonPlayerCommon> playerInjector,
         final Provider<MessagingManager> messagingManager,
         final PacketFactory packetFactory,
-        final ChannelRegistry channelRegistry
+        final ChannelRegistry channelRegistry,
+        final ScheduledExecutorService periodicTasks,
+        final DatabaseSettings databaseSettings,
+        final UserCacheSettings cacheSettings
     ) {
         super(
             jdbi,
+            dataSource,
             new QueriesLocator(DBType.POSTGRESQL),
             logger,
             profileResolver,
             playerInjector,
             messagingManager,
             packetFactory,
-            channelRegistry
+            channelRegistry,
+            periodicTasks,
+            databaseSettings,
+            cacheSettings
         );
     }
 
     @Override
-    protected CarbonPlayerCommon loadOrCreate(final UUID uuid) {
-        return this.jdbi.withHandle(handle -> {
-            final @Nullable CarbonPlayerCommon carbonPlayerCommon = handle.createQuery(this.locator.query("select-player"))
-                .bind("id", uuid)
-                .mapTo(CarbonPlayerCommon.class)
-                .findOne()
-                .orElse(null);
-            if (carbonPlayerCommon == null) {
-                return new CarbonPlayerCommon(null, uuid);
-            }
-
-            handle.createQuery(this.locator.query("select-ignores"))
-                .bind("id", uuid)
-                .mapTo(UUID.class)
-                .forEach(ignoredPlayer -> carbonPlayerCommon.ignoring(ignoredPlayer, true, true));
-
-            handle.createQuery(this.locator.query("select-leftchannels"))
-                .bind("id", uuid)
-                .mapTo(Key.class)
-                .forEach(channel -> {
-                    final @Nullable ChatChannel chatChannel = this.channelRegistry.channel(channel);
-
-                    if (chatChannel == null) {
-                        return;
-                    }
-
-                    carbonPlayerCommon.leaveChannel(chatChannel, true);
-                });
-            return carbonPlayerCommon;
-        });
+    protected PreparedBatch defineUpsert(final PreparedBatch batch, final List<String> columns) {
+        final StringBuilder assignments = new StringBuilder();
+        for (final String column : columns) {
+            assignments.append(", ").append(column).append(" = EXCLUDED.").append(column);
+        }
+        return batch.define("assignments", assignments.toString());
     }
 
     @Override
-    protected Update bindPlayerArguments(final Update update, final CarbonPlayerCommon player) {
-        return update
-            .bind("id", player.uuid())
-            .bind("muted", player.muted())
-            .bind("deafened", player.deafened())
-            .bind("selectedchannel", player.selectedChannelKey())
-            .bind("username", player.username())
-            .bind("displayname", player.displayNameRaw())
-            .bind("lastwhispertarget", player.lastWhisperTarget())
-            .bind("whisperreplytarget", player.whisperReplyTarget())
-            .bind("spying", player.spying());
+    protected Object idArgument(final UUID uuid) {
+        return uuid;
     }
 
     public static final class Factory {
 
         private final DatabaseSettings databaseSettings;
+        private final UserCacheSettings cacheSettings;
         private final Logger logger;
         private final ProfileResolver profileResolver;
         private final MembersInjector<CarbonPlayerCommon> playerInjector;
         private final Provider<MessagingManager> messagingManager;
         private final PacketFactory packetFactory;
         private final ChannelRegistry channelRegistry;
+        private final ScheduledExecutorService periodicTasks;
 
         @Inject
         private Factory(
@@ -145,29 +122,47 @@ public final class PostgreSQLUserManager extends DatabaseUserManager {
             final ProfileResolver profileResolver,
             final MembersInjector<CarbonPlayerCommon> playerInjector,
             final Provider<MessagingManager> messagingManager,
-            final PacketFactory packetFactory
+            final PacketFactory packetFactory,
+            final @PeriodicTasks ScheduledExecutorService periodicTasks
         ) {
             this.channelRegistry = channelRegistry;
             this.databaseSettings = configFactory.primaryConfig().databaseSettings();
+            this.cacheSettings = configFactory.primaryConfig().userCacheSettings();
             this.logger = logger;
             this.profileResolver = profileResolver;
             this.playerInjector = playerInjector;
             this.messagingManager = messagingManager;
             this.packetFactory = packetFactory;
+            this.periodicTasks = periodicTasks;
         }
 
         public PostgreSQLUserManager create() {
+            return this.create(this.databaseSettings);
+        }
+
+        /**
+         * Create a user manager connected with the given settings instead of the configured ones.
+         *
+         * @param databaseSettings connection settings
+         * @return new user manager
+         */
+        public PostgreSQLUserManager create(final DatabaseSettings databaseSettings) {
             SQLDrivers.loadFrom(this.getClass().getClassLoader());
-            PluginRegister.REGISTERED_PLUGINS.add(new PostgreSQLDatabaseType());
+            // Flyway keeps plugins globally, so only register it for the first manager created
+            synchronized (PluginRegister.REGISTERED_PLUGINS) {
+                if (PluginRegister.REGISTERED_PLUGINS.stream().noneMatch(PostgreSQLDatabaseType.class::isInstance)) {
+                    PluginRegister.REGISTERED_PLUGINS.add(new PostgreSQLDatabaseType());
+                }
+            }
 
             final HikariConfig hikariConfig = new HikariConfig();
             hikariConfig.setMaximumPoolSize(20);
-            hikariConfig.setJdbcUrl(this.databaseSettings.url());
-            hikariConfig.setUsername(this.databaseSettings.username());
-            hikariConfig.setPassword(this.databaseSettings.password());
+            hikariConfig.setJdbcUrl(databaseSettings.url());
+            hikariConfig.setUsername(databaseSettings.username());
+            hikariConfig.setPassword(databaseSettings.password());
             hikariConfig.setThreadFactory(ConcurrentUtil.carbonThreadFactory(this.logger, "PSQLUserManagerHCP"));
 
-            final DataSource dataSource = new HikariDataSource(hikariConfig);
+            final HikariDataSource dataSource = new HikariDataSource(hikariConfig);
 
             Flyway.configure(CarbonChat.class.getClassLoader())
                 .baselineVersion("0")
@@ -187,7 +182,7 @@ public final class PostgreSQLUserManager extends DatabaseUserManager {
                 .installPlugin(new SqlObjectPlugin())
                 .installPlugin(new PostgresPlugin());
 
-            return new PostgreSQLUserManager(jdbi, this.logger, this.profileResolver, this.playerInjector, this.messagingManager, this.packetFactory, this.channelRegistry);
+            return new PostgreSQLUserManager(jdbi, dataSource, this.logger, this.profileResolver, this.playerInjector, this.messagingManager, this.packetFactory, this.channelRegistry, this.periodicTasks, databaseSettings, this.cacheSettings);
         }
 
     }
@@ -28,11 +28,14 @@ import java.io.IOException;
 import java.io.Reader;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 import net.draycia.carbon.api.channels.ChannelRegistry;
 import net.draycia.carbon.api.channels.ChatChannel;
 import net.draycia.carbon.common.DataDirectory;
 import net.draycia.carbon.common.channels.CarbonChannelRegistry;
+import net.draycia.carbon.common.config.ConfigFactory;
 import net.draycia.carbon.common.messaging.MessagingManager;
 import net.draycia.carbon.common.messaging.packets.PacketFactory;
 import net.draycia.carbon.common.serialisation.gson.ChatChannelSerializerGson;
@@ -65,14 +68,16 @@ public class JSONUserManager extends CachingUserManager {
         final UUIDSerializerGson uuidSerializer,
         final Provider<MessagingManager> messagingManager,
         final PacketFactory packetFactory,
-        final CarbonChannelRegistry channelRegistry
+        final CarbonChannelRegistry channelRegistry,
+        final ConfigFactory configFactory
     ) throws IOException {
         super(
             logger,
             profileResolver,
             playerInjector,
             messagingManager,
-            packetFactory
+            packetFactory,
+            configFactory.primaryConfig().userCacheSettings()
         );
         this.userDirectory = dataDirectory.resolve("users");
         this.channelRegistry = channelRegistry;
@@ -117,6 +122,20 @@ public class JSONUserManager extends CachingUserManager {
         return new CarbonPlayerCommon(null, uuid);
     }
 
+    @Override
+    protected List<UUID> storedPlayers() {
+        final List<UUID> ids = new ArrayList<>();
+        for (final Path userFile : FileUtil.listDirectoryEntries(this.userDirectory, "*.json")) {
+            final String fileName = userFile.getFileName().toString();
+            try {
+                ids.add(UUID.fromString(fileName.substring(0, fileName.length() - ".json".length())));
+            } catch (final IllegalArgumentException ex) {
+                this.logger.warn("Skipping player file with invalid name {}", userFile);
+            }
+        }
+        return ids;
+    }
+
     private Path userFile(final UUID id) {
         return this.userDirectory.resolve(id + ".json");
     }
@@ -125,6 +144,8 @@ public class JSONUserManager extends CachingUserManager {
     public void saveSync(final CarbonPlayerCommon player) {
         final Path userFile = this.userFile(player.uuid());
 
+        // Taken before serializing, so changes made while writing are kept for the next save
+        final CarbonPlayerCommon.Changes changes = player.takeChanges();
         try {
             final String json = this.serializer.toJson(player);
 
@@ -134,7 +155,11 @@ public class JSONUserManager extends CachingUserManager {
 
             Files.writeString(FileUtil.mkParentDirs(userFile), json);
         } catch (final IOException exception) {
+            player.restoreChanges(changes);
             throw new RuntimeException("Exception while saving data for player [%s]".formatted(player.username()), exception);
+        } catch (final RuntimeException exception) {
+            player.restoreChanges(changes);
+            throw exception;
         }
     }
 
@@ -0,0 +1,263 @@
+/*
+ * CarbonChat
+ *
+ * Copyright (c) 2023 Josua Parks (Vicarious)
+ *                    Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.draycia.carbon.common.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.framework.qual.DefaultQualifier;
+
+/**
+ * Aho-Corasick automaton, finding any of a set of strings in a single scan of the text.
+ *
+ * <p>Instances are immutable and safe to share between threads.</p>
+ *
+ * @param <T> type of the value attached to each string
+ */
+@DefaultQualifier(NonNull.class)
+public final class AhoCorasick<T> {
+
+    private final Node<T> root;
+    private final boolean ignoreCase;
+    private final int maxLength;
+
+    private AhoCorasick(final Node<T> root, final boolean ignoreCase, final int maxLength) {
+        this.root = root;
+        this.ignoreCase = ignoreCase;
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * Build an automaton for the given strings. Empty strings are ignored.
+     *
+     * @param patterns   strings to find, with their values
+     * @param ignoreCase whether to match regardless of case
+     * @param <T>        value type
+     * @return automaton
+     */
+    public static <T> AhoCorasick<T> build(final Map<String, T> patterns, final boolean ignoreCase) {
+        final BuildNode<T> buildRoot = new BuildNode<>(0);
+        int maxLength = 0;
+        for (final Map.Entry<String, T> entry : patterns.entrySet()) {
+            final String pattern = entry.getKey();
+            if (pattern.isEmpty()) {
+                continue;
+            }
+            BuildNode<T> node = buildRoot;
+            for (int i = 0; i < pattern.length(); i++) {
+                final int depth = i + 1;
+                node = node.children.computeIfAbsent(fold(pattern.charAt(i), ignoreCase), $ -> new BuildNode<>(depth));
+            }
+            // The first value wins for duplicate strings
+            if (node.value == null) {
+                node.value = entry.getValue();
+            }
+            maxLength = Math.max(maxLength, pattern.length());
+        }
+
+        final Node<T> root = buildRoot.freeze();
+        root.fail = root;
+
+        // Breadth first, so fail links always point at an already linked, shallower node
+        final Deque<Node<T>> queue = new ArrayDeque<>();
+        for (final Node<T> child : root.children) {
+            child.fail = root;
+            child.finishOutput();
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            final Node<T> node = queue.poll();
+            for (int i = 0; i < node.keys.length; i++) {
+                final char key = node.keys[i];
+                final Node<T> child = node.children[i];
+                Node<T> fail = node.fail;
+                while (fail != root && fail.child(key) == null) {
+                    fail = fail.fail;
+                }
+                final @Nullable Node<T> failChild = fail.child(key);
+                child.fail = failChild == null ? root : failChild;
+                child.finishOutput();
+                queue.add(child);
+            }
+        }
+
+        return new AhoCorasick<>(root, ignoreCase, maxLength);
+    }
+
+    public boolean isEmpty() {
+        return this.maxLength == 0;
+    }
+
+    /**
+     * Find the leftmost match starting at or after {@code from}, preferring the longest string when several start
+     * at the same index.
+     *
+     * @param text text to search
+     * @param from index to start searching at
+     * @return match, or null if there is none
+     */
+    public @Nullable Match<T> find(final CharSequence text, final int from) {
+        if (this.isEmpty()) {
+            return null;
+        }
+
+        Node<T> state = this.root;
+        @Nullable Match<T> best = null;
+        for (int i = Math.max(0, from); i < text.length(); i++) {
+            // Nothing that ends from here on can start at or before the best match
+            if (best != null && i >= best.start() + this.maxLength) {
+                break;
+            }
+
+            final char c = fold(text.charAt(i), this.ignoreCase);
+            @Nullable Node<T> next = state.child(c);
+            while (next == null && state != this.root) {
+                state = state.fail;
+                next = state.child(c);
+            }
+            state = next == null ? this.root : next;
+
+            final @Nullable Node<T> output = state.output;
+            if (output != null) {
+                final int start = i + 1 - output.depth;
+                if (best == null || start < best.start() || (start == best.start() && i + 1 > best.end())) {
+                    best = new Match<>(start, i + 1, output.value);
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Find all non-overlapping matches, scanning left to right as {@link #find(CharSequence, int)} does.
+     *
+     * @param text text to search
+     * @return matches in order
+     */
+    public List<Match<T>> findAll(final CharSequence text) {
+        final List<Match<T>> matches = new ArrayList<>();
+        int from = 0;
+        @Nullable Match<T> match;
+        while ((match = this.find(text, from)) != null) {
+            matches.add(match);
+            from = match.end();
+        }
+        return matches;
+    }
+
+    /**
+     * Report every match, including overlapping ones, in order of their end index. Matches ending at the same
+     * index are reported longest first.
+     *
+     * @param text     text to search
+     * @param consumer match consumer
+     */
+    public void forEachMatch(final CharSequence text, final Consumer<Match<T>> consumer) {
+        if (this.isEmpty()) {
+            return;
+        }
+
+        Node<T> state = this.root;
+        for (int i = 0; i < text.length(); i++) {
+            final char c = fold(text.charAt(i), this.ignoreCase);
+            @Nullable Node<T> next = state.child(c);
+            while (next == null && state != this.root) {
+                state = state.fail;
+                next = state.child(c);
+            }
+            state = next == null ? this.root : next;
+
+            // Each output's fail link leads to the next shorter string ending here
+            for (@Nullable Node<T> output = state.output; output != null; output = output.fail.output) {
+                consumer.accept(new Match<>(i + 1 - output.depth, i + 1, output.value));
+            }
+        }
+    }
+
+    private static char fold(final char c, final boolean ignoreCase) {
+        return ignoreCase ? Character.toLowerCase(Character.toUpperCase(c)) : c;
+    }
+
+    public record Match<T>(int start, int end, T value) {
+    }
+
+    private static final class BuildNode<T> {
+
+        private final TreeMap<Character, BuildNode<T>> children = new TreeMap<>();
+        private final int depth;
+        private @Nullable T value;
+
+        private BuildNode(final int depth) {
+            this.depth = depth;
+        }
+
+        private Node<T> freeze() {
+            final char[] keys = new char[this.children.size()];
+            @SuppressWarnings("unchecked")
+            final Node<T>[] frozen = new Node[this.children.size()];
+            int i = 0;
+            for (final Map.Entry<Character, BuildNode<T>> entry : this.children.entrySet()) {
+                keys[i] = entry.getKey();
+                frozen[i] = entry.getValue().freeze();
+                i++;
+            }
+            return new Node<>(keys, frozen, this.depth, this.value);
+        }
+
+    }
+
+    private static final class Node<T> {
+
+        // Sorted, for binary search
+        private final char[] keys;
+        private final Node<T>[] children;
+        private final int depth;
+        private final @Nullable T value;
+        private @MonotonicNonNull Node<T> fail;
+        // The longest string ending at this node, this node itself or one reached through fail links
+        private @Nullable Node<T> output;
+
+        private Node(final char[] keys, final Node<T>[] children, final int depth, final @Nullable T value) {
+            this.keys = keys;
+            this.children = children;
+            this.depth = depth;
+            this.value = value;
+        }
+
+        private @Nullable Node<T> child(final char key) {
+            final int index = Arrays.binarySearch(this.keys, key);
+            return index < 0 ? null : this.children[index];
+        }
+
+        private void finishOutput() {
+            this.output = this.value != null ? this : this.fail.output;
+        }
+
+    }
+
+}
@@ -0,0 +1,211 @@
+/*
+ * CarbonChat
+ *
+ * Copyright (c) 2023 Josua Parks (Vicarious)
+ *                    Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.draycia.carbon.common.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.framework.qual.DefaultQualifier;
+
+/**
+ * Chat filter rules compiled once, replacing every match in a single scan of the message.
+ *
+ * <p>Plain words are matched with {@link AhoCorasick} automatons, and regular expressions are combined
+ * into one alternation. Where matches overlap, the earliest one wins, and the longest one if they start
+ * at the same index. The exception is two regular expressions starting at the same index: like any
+ * alternation, the combined pattern takes the first rule in config order that matches there.
+ * Replaced text is not filtered again.</p>
+ *
+ * <p>Rules that need capture groups, in the pattern or the replacement, cannot share a pattern with the
+ * others and are applied one by one afterwards.</p>
+ */
+@DefaultQualifier(NonNull.class)
+public final class ChatFilter {
+
+    private static final ChatFilter EMPTY = new ChatFilter(Map.of());
+    private static final String CASE_INSENSITIVE_FLAG = "(?i)";
+    private static final Pattern REGEX_SYNTAX = Pattern.compile("[\\\\^$.|?*+()\\[\\]{}]");
+    private static final Pattern BACK_REFERENCE = Pattern.compile("\\\\(?:[1-9]|k<)");
+    private static final String GROUP_PREFIX = "carbonFilter";
+
+    private final AhoCorasick<String> literals;
+    private final AhoCorasick<String> caseInsensitiveLiterals;
+    private final @Nullable Pattern combined;
+    private final List<String> combinedReplacements;
+    private final List<Rule> sequential;
+
+    private ChatFilter(final Map<String, String> rules) {
+        final Map<String, String> literals = new LinkedHashMap<>();
+        final Map<String, String> caseInsensitiveLiterals = new LinkedHashMap<>();
+        final StringBuilder combined = new StringBuilder();
+        this.combinedReplacements = new ArrayList<>();
+        this.sequential = new ArrayList<>();
+
+        for (final Map.Entry<String, String> rule : rules.entrySet()) {
+            final String pattern = rule.getKey();
+            final String replacement = rule.getValue();
+            if (pattern.isEmpty()) {
+                continue;
+            }
+
+            // $ and \ in the replacement refer to groups, which only works with the rule's own pattern
+            if (replacement.indexOf('$') != -1 || replacement.indexOf('\\') != -1 || BACK_REFERENCE.matcher(pattern).find()) {
+                this.sequential.add(new Rule(Pattern.compile(pattern), replacement));
+            } else if (isLiteral(pattern)) {
+                literals.putIfAbsent(pattern, replacement);
+            } else if (pattern.startsWith(CASE_INSENSITIVE_FLAG) && isLiteral(pattern.substring(CASE_INSENSITIVE_FLAG.length()))) {
+                caseInsensitiveLiterals.putIfAbsent(pattern.substring(CASE_INSENSITIVE_FLAG.length()), replacement);
+            } else {
+                // Validate on its own first, so a broken rule is reported by itself
+                Pattern.compile(pattern);
+                if (!combined.isEmpty()) {
+                    combined.append('|');
+                }
+                combined.append("(?<").append(GROUP_PREFIX).append(this.combinedReplacements.size()).append('>')
+                    .append(pattern).append(')');
+                this.combinedReplacements.add(replacement);
+            }
+        }
+
+        this.literals = AhoCorasick.build(literals, false);
+        this.caseInsensitiveLiterals = AhoCorasick.build(caseInsensitiveLiterals, true);
+        this.combined = combined.isEmpty() ? null : Pattern.compile(combined.toString());
+    }
+
+    /**
+     * Compile the given rules, mapping regular expressions to their replacements.
+     *
+     * @param rules filter rules
+     * @return compiled filter
+     * @throws java.util.regex.PatternSyntaxException if a rule is not a valid regular expression
+     */
+    public static ChatFilter compile(final Map<String, String> rules) {
+        return rules.isEmpty() ? EMPTY : new ChatFilter(rules);
+    }
+
+    /**
+     * Apply the filter to a message.
+     *
+     * @param message message
+     * @return filtered message
+     */
+    public String apply(final String message) {
+        String filtered = this.applySinglePass(message);
+        for (final Rule rule : this.sequential) {
+            filtered = rule.pattern().matcher(filtered).replaceAll(rule.replacement());
+        }
+        return filtered;
+    }
+
+    private String applySinglePass(final String message) {
+        if (this.literals.isEmpty() && this.caseInsensitiveLiterals.isEmpty() && this.combined == null) {
+            return message;
+        }
+
+        final @Nullable Matcher matcher = this.combined == null ? null : this.combined.matcher(message);
+        @Nullable StringBuilder builder = null;
+        int position = 0;
+
+        // Each source's next match, only searched again once the output has moved past its start
+        AhoCorasick.@Nullable Match<String> literal = this.literals.find(message, 0);
+        AhoCorasick.@Nullable Match<String> caseInsensitiveLiteral = this.caseInsensitiveLiterals.find(message, 0);
+        AhoCorasick.@Nullable Match<String> regex = this.findRegex(matcher, message, 0);
+
+        while (position <= message.length()) {
+            if (literal != null && literal.start() < position) {
+                literal = this.literals.find(message, position);
+            }
+            if (caseInsensitiveLiteral != null && caseInsensitiveLiteral.start() < position) {
+                caseInsensitiveLiteral = this.caseInsensitiveLiterals.find(message, position);
+            }
+            if (regex != null && regex.start() < position) {
+                regex = this.findRegex(matcher, message, position);
+            }
+
+            final AhoCorasick.@Nullable Match<String> next = first(first(literal, caseInsensitiveLiteral), regex);
+            if (next == null) {
+                break;
+            }
+
+            if (builder == null) {
+                builder = new StringBuilder(message.length());
+            }
+            builder.append(message, position, next.start()).append(next.value());
+            if (next.end() == next.start()) {
+                // Empty match, step over a character like Matcher#replaceAll does
+                if (next.end() < message.length()) {
+                    builder.append(message.charAt(next.end()));
+                }
+                position = next.end() + 1;
+            } else {
+                position = next.end();
+            }
+        }
+
+        if (builder == null) {
+            return message;
+        }
+        if (position < message.length()) {
+            builder.append(message, position, message.length());
+        }
+        return builder.toString();
+    }
+
+    private AhoCorasick.@Nullable Match<String> findRegex(final @Nullable Matcher matcher, final String message, final int from) {
+        if (matcher == null || from > message.length() || !matcher.find(from)) {
+            return null;
+        }
+        for (int i = 0; i < this.combinedReplacements.size(); i++) {
+            if (matcher.start(GROUP_PREFIX + i) != -1) {
+                return new AhoCorasick.Match<>(matcher.start(), matcher.end(), this.combinedReplacements.get(i));
+            }
+        }
+        throw new IllegalStateException("No rule group matched");
+    }
+
+    private static AhoCorasick.@Nullable Match<String> first(
+        final AhoCorasick.@Nullable Match<String> a,
+        final AhoCorasick.@Nullable Match<String> b
+    ) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        if (a.start() != b.start()) {
+            return a.start() < b.start() ? a : b;
+        }
+        return b.end() > a.end() ? b : a;
+    }
+
+    private static boolean isLiteral(final String pattern) {
+        return !REGEX_SYNTAX.matcher(pattern).find();
+    }
+
+    private record Rule(Pattern pattern, String replacement) {
+    }
+
+}
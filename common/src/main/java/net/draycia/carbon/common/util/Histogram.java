@@ -0,0 +1,110 @@
+/*
+ * CarbonChat
+ *
+ * Copyright (c) 2023 Josua Parks (Vicarious)
+ *                    Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.draycia.carbon.common.util;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.framework.qual.DefaultQualifier;
+
+/**
+ * Thread safe histogram with fixed buckets.
+ */
+@DefaultQualifier(NonNull.class)
+public final class Histogram {
+
+    // Inclusive upper bounds, the last bucket holds everything above them
+    private final long[] bounds;
+    private final LongAdder[] counts;
+    private final LongAdder sum = new LongAdder();
+
+    /**
+     * Create a histogram.
+     *
+     * @param bounds inclusive upper bounds of the buckets, ascending
+     */
+    public Histogram(final long... bounds) {
+        this.bounds = bounds.clone();
+        this.counts = new LongAdder[bounds.length + 1];
+        for (int i = 0; i < this.counts.length; i++) {
+            this.counts[i] = new LongAdder();
+        }
+    }
+
+    public void record(final long value) {
+        final int index = Arrays.binarySearch(this.bounds, value);
+        this.counts[index < 0 ? -index - 1 : index].increment();
+        this.sum.add(value);
+    }
+
+    public long count() {
+        long count = 0;
+        for (final LongAdder bucket : this.counts) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    public double mean() {
+        final long count = this.count();
+        return count == 0 ? 0 : this.sum.sum() / (double) count;
+    }
+
+    /**
+     * Get the upper bound of the bucket holding the given percentile.
+     *
+     * @param percentile percentile, from 0 to 1
+     * @return bucket upper bound, or -1 if the percentile is above the last bound
+     */
+    public long percentile(final double percentile) {
+        final long[] counts = new long[this.counts.length];
+        long total = 0;
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = this.counts[i].sum();
+            total += counts[i];
+        }
+
+        final long target = (long) Math.ceil(total * percentile);
+        long seen = 0;
+        for (int i = 0; i < this.bounds.length; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return this.bounds[i];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Describe the distribution for debug output.
+     *
+     * @param unit unit suffix for values
+     * @return summary
+     */
+    public String summary(final String unit) {
+        return "%.1f%s mean, p50 %s, p99 %s".formatted(
+            this.mean(), unit, this.bound(this.percentile(0.5), unit), this.bound(this.percentile(0.99), unit));
+    }
+
+    private String bound(final long bound, final String unit) {
+        return bound < 0 ? ">" + this.bounds[this.bounds.length - 1] + unit : "<=" + bound + unit;
+    }
+
+}
@@ -0,0 +1,121 @@
+/*
+ * CarbonChat
+ *
+ * Copyright (c) 2023 Josua Parks (Vicarious)
+ *                    Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.draycia.carbon.common.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.util.HashMap;
+import java.util.Map;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.framework.qual.DefaultQualifier;
+
+/**
+ * Replaces {@code <name>} tags with configured values in a single scan.
+ *
+ * <p>Values are inserted as-is and not scanned again, so placeholders do not work within each other.</p>
+ */
+@DefaultQualifier(NonNull.class)
+public final class PlaceholderExpander {
+
+    private static final int MAX_CACHED_TEMPLATES = 1024;
+    private static final PlaceholderExpander EMPTY = new PlaceholderExpander(Map.of());
+
+    private final Map<String, String> placeholders;
+    private final @Nullable Cache<String, String> expanded;
+
+    private PlaceholderExpander(final Map<String, String> placeholders) {
+        this.placeholders = new HashMap<>(placeholders);
+        this.expanded = placeholders.isEmpty() ? null : Caffeine.newBuilder()
+            .maximumSize(MAX_CACHED_TEMPLATES)
+            .build();
+    }
+
+    /**
+     * Create an expander for the given placeholders, mapping tag names to their values.
+     *
+     * @param placeholders placeholders
+     * @return expander
+     */
+    public static PlaceholderExpander create(final Map<String, String> placeholders) {
+        return placeholders.isEmpty() ? EMPTY : new PlaceholderExpander(placeholders);
+    }
+
+    /**
+     * Expand placeholders in a string.
+     *
+     * @param input input
+     * @return expanded string, or {@code input} itself if it contained no placeholders
+     */
+    public String expand(final String input) {
+        if (this.placeholders.isEmpty()) {
+            return input;
+        }
+
+        @Nullable StringBuilder builder = null;
+        int copied = 0;
+        int open = input.indexOf('<');
+
+        while (open != -1) {
+            final int close = input.indexOf('>', open + 1);
+            if (close == -1) {
+                break;
+            }
+
+            // A '<' inside the tag starts the real candidate, as in "<<name>"
+            final int nested = input.lastIndexOf('<', close - 1);
+            if (nested > open) {
+                open = nested;
+            }
+
+            final @Nullable String value = this.placeholders.get(input.substring(open + 1, close));
+            if (value != null) {
+                if (builder == null) {
+                    builder = new StringBuilder(input.length() + value.length());
+                }
+                builder.append(input, copied, open).append(value);
+                copied = close + 1;
+            }
+            open = input.indexOf('<', close + 1);
+        }
+
+        if (builder == null) {
+            return input;
+        }
+        return builder.append(input, copied, input.length()).toString();
+    }
+
+    /**
+     * Expand placeholders in a string that is likely to be expanded again, such as a message format.
+     *
+     * <p>Results are kept for up to {@value MAX_CACHED_TEMPLATES} distinct strings, so this should not be
+     * used for arbitrary input like chat messages.</p>
+     *
+     * @param template template
+     * @return expanded string
+     */
+    public String expandCached(final String template) {
+        if (this.expanded == null) {
+            return template;
+        }
+        return this.expanded.get(template, this::expand);
+    }
+
+}
@@ -19,12 +19,16 @@
  */
 package net.draycia.carbon.common.util;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Function;
 import net.draycia.carbon.api.CarbonServer;
 import net.draycia.carbon.api.users.CarbonPlayer;
+import net.draycia.carbon.api.users.UserManager;
 import net.draycia.carbon.common.users.UserManagerInternal;
 import org.apache.logging.log4j.Logger;
 import org.checkerframework.checker.nullness.qual.NonNull;
@@ -58,6 +62,36 @@ public final class PlayerUtils {
         return saveResult;
     }
 
+    /**
+     * Load a player while they are logging in, so their data is ready by the time they can chat.
+     *
+     * <p>The returned future completes once the player is loaded or the timeout passed, and never completes exceptionally.</p>
+     *
+     * @param userManager user manager
+     * @param uuid        player id
+     * @param timeout     how long to wait for the load
+     * @param logger      logger
+     * @return future completing when the login may continue
+     */
+    public static CompletableFuture<Void> loadOnLogin(
+        final UserManager<?> userManager,
+        final UUID uuid,
+        final Duration timeout,
+        final Logger logger
+    ) {
+        return userManager.user(uuid)
+            .<Void>thenApply($ -> null)
+            .orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+            .exceptionally(thr -> {
+                if (thr instanceof TimeoutException) {
+                    logger.warn("Loading data for player with uuid {} took longer than {}s, letting them join anyway", uuid, timeout.toSeconds());
+                } else {
+                    logger.warn("Exception loading data for player with uuid {}", uuid, thr);
+                }
+                return null;
+            });
+    }
+
     public static <T> Function<Throwable, @Nullable T> joinExceptionHandler(final Logger logger) {
         return thr -> {
             logger.warn("Exception handling player join", thr);
@@ -0,0 +1,148 @@
+/*
+ * CarbonChat
+ *
+ * Copyright (c) 2023 Josua Parks (Vicarious)
+ *                    Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.draycia.carbon.common.util;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.apache.logging.log4j.Logger;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.framework.qual.DefaultQualifier;
+
+/**
+ * Spreads tasks over a fixed number of single threaded workers by key.
+ *
+ * <p>Tasks for the same key always run on the same worker, in submission order,
+ * while tasks for different keys can run concurrently.</p>
+ */
+@DefaultQualifier(NonNull.class)
+public final class StripedExecutor {
+
+    // Weight of the newest sample in the latency moving average
+    private static final double LATENCY_SMOOTHING = 0.1;
+    // Time for the average to decay to 1/e of its value without new samples, so idle workers recover
+    private static final long LATENCY_DECAY_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final Stripe[] stripes;
+
+    public StripedExecutor(final Logger logger, final String name, final int stripes) {
+        if (stripes < 1) {
+            throw new IllegalArgumentException("stripes must be positive: " + stripes);
+        }
+        this.stripes = new Stripe[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new Stripe(new ThreadPoolExecutor(
+                1,
+                1,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                ConcurrentUtil.carbonThreadFactory(logger, name + " Stripe " + i)
+            ));
+        }
+    }
+
+    /**
+     * Get the executor for tasks belonging to the given key.
+     *
+     * @param key key
+     * @return executor for the key
+     */
+    public Executor stripe(final Object key) {
+        return this.stripes[Math.floorMod(key.hashCode(), this.stripes.length)];
+    }
+
+    /**
+     * Get the number of tasks that are queued or running across all workers.
+     *
+     * @return queue depth
+     */
+    public int queueDepth() {
+        int depth = 0;
+        for (final Stripe stripe : this.stripes) {
+            depth += stripe.delegate.getQueue().size() + stripe.delegate.getActiveCount();
+        }
+        return depth;
+    }
+
+    /**
+     * Get the highest moving average, across workers, of the time from submitting a task until it completes.
+     *
+     * @return latency in milliseconds
+     */
+    public double latencyMillis() {
+        double latency = 0;
+        for (final Stripe stripe : this.stripes) {
+            latency = Math.max(latency, stripe.latencyNanos());
+        }
+        return latency / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public void shutdown(final TimeUnit timeoutUnit, final long timeoutLength) {
+        for (final Stripe stripe : this.stripes) {
+            stripe.delegate.shutdown();
+        }
+        for (final Stripe stripe : this.stripes) {
+            ConcurrentUtil.shutdownExecutor(stripe.delegate, timeoutUnit, timeoutLength);
+        }
+    }
+
+    private static final class Stripe implements Executor {
+
+        private final ThreadPoolExecutor delegate;
+        private double latencyNanos;
+        private long latencyUpdated = System.nanoTime();
+
+        private Stripe(final ThreadPoolExecutor delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void execute(final Runnable command) {
+            final long submitted = System.nanoTime();
+            this.delegate.execute(() -> {
+                try {
+                    command.run();
+                } finally {
+                    this.recordLatency(System.nanoTime() - submitted);
+                }
+            });
+        }
+
+        private synchronized void recordLatency(final long latency) {
+            this.decayLatency();
+            this.latencyNanos += (latency - this.latencyNanos) * LATENCY_SMOOTHING;
+        }
+
+        private synchronized double latencyNanos() {
+            this.decayLatency();
+            return this.latencyNanos;
+        }
+
+        private void decayLatency() {
+            final long now = System.nanoTime();
+            this.latencyNanos *= Math.exp(-(now - this.latencyUpdated) / (double) LATENCY_DECAY_NANOS);
+            this.latencyUpdated = now;
+        }
+
+    }
+
+}
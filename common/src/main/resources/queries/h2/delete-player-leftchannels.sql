@@ -0,0 +1 @@
+DELETE FROM carbon_leftchannels WHERE id IN (<ids>)
@@ -0,0 +1 @@
+MERGE INTO carbon_ignores (id, ignoredplayer) KEY (id, ignoredplayer) VALUES(:id, :ignoredplayer)
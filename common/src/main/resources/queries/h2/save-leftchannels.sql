@@ -0,0 +1 @@
+MERGE INTO carbon_leftchannels (id, channel) KEY (id, channel) VALUES(:id, :channel)
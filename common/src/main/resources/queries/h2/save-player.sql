@@ -0,0 +1,3 @@
+MERGE INTO carbon_users (id<columns>)
+KEY (id)
+VALUES (:id<values>);
@@ -0,0 +1 @@
+SELECT CAST(id AS VARCHAR) AS id FROM carbon_users;
@@ -0,0 +1,13 @@
+SELECT
+    u.id,
+    u.muted,
+    u.deafened,
+    u.selectedchannel,
+    u.username,
+    u.displayname,
+    u.lastwhispertarget,
+    u.whisperreplytarget,
+    u.spying,
+    (SELECT LISTAGG(CAST(i.ignoredplayer AS VARCHAR), ',') FROM carbon_ignores i WHERE i.id = u.id) AS ignoredplayers,
+    (SELECT LISTAGG(c.channel, ',') FROM carbon_leftchannels c WHERE c.id = u.id) AS leftchannels
+FROM carbon_users u WHERE u.id IN (<ids>);
@@ -0,0 +1,23 @@
+CREATE TABLE IF NOT EXISTS carbon_users (
+    id UUID NOT NULL PRIMARY KEY,
+    muted BOOLEAN,
+    deafened BOOLEAN,
+    selectedchannel VARCHAR(256),
+    username VARCHAR(20),
+    displayname VARCHAR(1024),
+    lastwhispertarget UUID,
+    whisperreplytarget UUID,
+    spying BOOLEAN
+);
+
+CREATE TABLE IF NOT EXISTS carbon_ignores (
+    id UUID NOT NULL,
+    ignoredplayer UUID NOT NULL,
+    PRIMARY KEY (id, ignoredplayer)
+);
+
+CREATE TABLE IF NOT EXISTS carbon_leftchannels (
+    id UUID NOT NULL,
+    channel VARCHAR(256) NOT NULL,
+    PRIMARY KEY (id, channel)
+);
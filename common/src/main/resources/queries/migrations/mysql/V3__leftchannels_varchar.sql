@@ -0,0 +1,3 @@
+ALTER TABLE carbon_leftchannels MODIFY `channel` VARCHAR(256) NOT NULL;
+
+UPDATE carbon_leftchannels SET `channel` = TRIM(TRAILING CHAR(0) FROM `channel`);
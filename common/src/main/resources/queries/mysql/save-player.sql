@@ -1,12 +1,3 @@
-UPDATE carbon_users
-SET
-    id = UNHEX(REPLACE(:id, '-', '')),
-    muted = :muted,
-    deafened = :deafened,
-    selectedchannel = :selectedchannel,
-    username= :username,
-    displayname = :displayname,
-    lastwhispertarget = UNHEX(REPLACE(:lastwhispertarget, '-', '')),
-    whisperreplytarget = UNHEX(REPLACE(:whisperreplytarget, '-', '')),
-    spying = :spying
-WHERE id = UNHEX(REPLACE(:id, '-', ''));
+INSERT INTO carbon_users (id<columns>)
+VALUES (UNHEX(REPLACE(:id, '-', ''))<values>)<rowalias>
+ON DUPLICATE KEY UPDATE id = id<assignments>;
@@ -0,0 +1,9 @@
+SELECT
+    LOWER(CONCAT(
+      LEFT(HEX(id), 8), '-',
+      MID(HEX(id), 9, 4), '-',
+      MID(HEX(id), 13, 4), '-',
+      MID(HEX(id), 17, 4), '-',
+      RIGHT(HEX(id), 12)
+    )) AS id
+FROM carbon_users;
@@ -1,29 +1,31 @@
 SELECT
     LOWER(CONCAT(
-      LEFT(HEX(id), 8), '-',
-      MID(HEX(id), 9, 4), '-',
-      MID(HEX(id), 13, 4), '-',
-      MID(HEX(id), 17, 4), '-',
-      RIGHT(HEX(id), 12)
+      LEFT(HEX(u.id), 8), '-',
+      MID(HEX(u.id), 9, 4), '-',
+      MID(HEX(u.id), 13, 4), '-',
+      MID(HEX(u.id), 17, 4), '-',
+      RIGHT(HEX(u.id), 12)
     )) AS id,
-    muted,
-    deafened,
-    selectedchannel,
-    username,
-    displayname,
+    u.muted,
+    u.deafened,
+    u.selectedchannel,
+    u.username,
+    u.displayname,
     LOWER(CONCAT(
-      LEFT(HEX(lastwhispertarget), 8), '-',
-      MID(HEX(lastwhispertarget), 9, 4), '-',
-      MID(HEX(lastwhispertarget), 13, 4), '-',
-      MID(HEX(lastwhispertarget), 17, 4), '-',
-      RIGHT(HEX(lastwhispertarget), 12)
+      LEFT(HEX(u.lastwhispertarget), 8), '-',
+      MID(HEX(u.lastwhispertarget), 9, 4), '-',
+      MID(HEX(u.lastwhispertarget), 13, 4), '-',
+      MID(HEX(u.lastwhispertarget), 17, 4), '-',
+      RIGHT(HEX(u.lastwhispertarget), 12)
     )) AS lastwhispertarget,
     LOWER(CONCAT(
-      LEFT(HEX(whisperreplytarget), 8), '-',
-      MID(HEX(whisperreplytarget), 9, 4), '-',
-      MID(HEX(whisperreplytarget), 13, 4), '-',
-      MID(HEX(whisperreplytarget), 17, 4), '-',
-      RIGHT(HEX(whisperreplytarget), 12)
+      LEFT(HEX(u.whisperreplytarget), 8), '-',
+      MID(HEX(u.whisperreplytarget), 9, 4), '-',
+      MID(HEX(u.whisperreplytarget), 13, 4), '-',
+      MID(HEX(u.whisperreplytarget), 17, 4), '-',
+      RIGHT(HEX(u.whisperreplytarget), 12)
     )) AS whisperreplytarget,
-    spying
-FROM carbon_users WHERE (id = UNHEX(REPLACE(:id, '-', '')));
+    u.spying,
+    (SELECT GROUP_CONCAT(LOWER(HEX(i.ignoredplayer))) FROM carbon_ignores i WHERE i.id = u.id) AS ignoredplayers,
+    (SELECT GROUP_CONCAT(c.channel) FROM carbon_leftchannels c WHERE c.id = u.id) AS leftchannels
+FROM carbon_users u WHERE u.id IN (<ids>);
@@ -0,0 +1 @@
+DELETE FROM carbon_ignores WHERE id IN (<ids>)
@@ -1 +1 @@
-INSERT INTO carbon_ignores (id, ignoredplayer) VALUES(:id, :ignoredplayer)
+INSERT INTO carbon_ignores (id, ignoredplayer) VALUES(:id, :ignoredplayer) ON CONFLICT DO NOTHING
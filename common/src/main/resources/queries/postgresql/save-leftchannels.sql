@@ -1 +1 @@
-INSERT INTO carbon_leftchannels (id, channel) VALUES(:id, :channel)
+INSERT INTO carbon_leftchannels (id, channel) VALUES(:id, :channel) ON CONFLICT DO NOTHING
@@ -1,12 +1,3 @@
-UPDATE carbon_users
-SET
-    id = :id,
-    muted = :muted,
-    deafened = :deafened,
-    selectedchannel = :selectedchannel,
-    username= :username,
-    displayname = :displayname,
-    lastwhispertarget = :lastwhispertarget,
-    whisperreplytarget = :whisperreplytarget,
-    spying = :spying
-WHERE id = :id;
+INSERT INTO carbon_users (id<columns>)
+VALUES (:id<values>)
+ON CONFLICT (id) DO UPDATE SET id = EXCLUDED.id<assignments>;
@@ -1 +0,0 @@
-SELECT channel FROM carbon_leftchannels WHERE (id = :id);
@@ -0,0 +1 @@
+SELECT id::text AS id FROM carbon_users;
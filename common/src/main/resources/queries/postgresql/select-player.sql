@@ -1,11 +1,13 @@
 SELECT
-    id,
-    muted,
-    deafened,
-    selectedchannel,
-    username,
-    displayname,
-    lastwhispertarget,
-    whisperreplytarget,
-    spying
-FROM carbon_users WHERE (id = :id);
+    u.id,
+    u.muted,
+    u.deafened,
+    u.selectedchannel,
+    u.username,
+    u.displayname,
+    u.lastwhispertarget,
+    u.whisperreplytarget,
+    u.spying,
+    (SELECT string_agg(i.ignoredplayer::text, ',') FROM carbon_ignores i WHERE i.id = u.id) AS ignoredplayers,
+    (SELECT string_agg(c.channel, ',') FROM carbon_leftchannels c WHERE c.id = u.id) AS leftchannels
+FROM carbon_users u WHERE u.id IN (<ids>);
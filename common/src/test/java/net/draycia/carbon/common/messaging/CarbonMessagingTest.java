@@ -0,0 +1,105 @@
+/*
+ * CarbonChat
+ *
+ * Copyright (c) 2023 Josua Parks (Vicarious)
+ *                    Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.draycia.carbon.common.messaging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import net.draycia.carbon.common.messaging.packets.ChatMessagePacket;
+import net.draycia.carbon.common.messaging.packets.PacketEncoding;
+import net.kyori.adventure.key.Key;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.format.TextDecoration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CarbonMessagingTest {
+
+    private static final long TIMEOUT_MILLIS = 5000;
+    private static final long QUIET_MILLIS = 200;
+
+    private final List<LoopbackNode> nodes = new ArrayList<>();
+
+    @AfterEach
+    void closeNodes() {
+        for (final LoopbackNode node : this.nodes) {
+            node.close();
+        }
+        PacketEncoding.peerProtocolVersion(0);
+        PacketEncoding.compressionThreshold(0);
+    }
+
+    @ParameterizedTest
+    @ValueSource(bytes = {0, PacketEncoding.BINARY_COMPONENTS_VERSION, PacketEncoding.COMPRESSION_VERSION, PacketEncoding.SIZED_COMPONENTS_VERSION})
+    void deliversChatToEveryOtherServer(final byte protocolVersion) throws InterruptedException {
+        PacketEncoding.compressionThreshold(64);
+        final String network = "carbon-test-" + UUID.randomUUID();
+        final List<BlockingQueue<ChatMessagePacket>> inboxes = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            final BlockingQueue<ChatMessagePacket> inbox = new LinkedBlockingQueue<>();
+            inboxes.add(inbox);
+            this.nodes.add(new LoopbackNode(network, protocolVersion, 1, 64, inbox::add));
+        }
+        LoopbackNode.connect(this.nodes, TIMEOUT_MILLIS);
+
+        final LoopbackNode sender = this.nodes.get(0);
+        final UUID userId = UUID.randomUUID();
+        final Key channel = Key.key("carbon", "global");
+        final Component message = message();
+        final long compressedBefore = PacketEncoding.compressedPayloads();
+
+        sender.send(new ChatMessagePacket(sender.id, userId, "carbon.channel.global", channel, "Notch", message));
+        sender.batcher.flush();
+
+        for (int i = 1; i < this.nodes.size(); i++) {
+            final ChatMessagePacket received = inboxes.get(i).poll(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            assertNotNull(received, "server " + i + " did not receive the message");
+            assertEquals(sender.id, received.getSender());
+            assertEquals(userId, received.userId());
+            assertEquals("carbon.channel.global", received.channelPermission());
+            assertEquals(channel, received.channelKey());
+            assertEquals("Notch", received.username());
+            assertEquals(message, received.message());
+        }
+        assertNull(inboxes.get(0).poll(QUIET_MILLIS, TimeUnit.MILLISECONDS), "servers must not receive their own messages");
+
+        final boolean compressed = PacketEncoding.compressedPayloads() > compressedBefore;
+        assertEquals(protocolVersion >= PacketEncoding.COMPRESSION_VERSION, compressed);
+    }
+
+    private static Component message() {
+        final var builder = Component.text();
+        for (int i = 0; i < 16; i++) {
+            builder.append(Component.text("carbon chat message " + i + " ", i % 2 == 0 ? NamedTextColor.GOLD : NamedTextColor.AQUA)
+                .decoration(TextDecoration.BOLD, i % 3 == 0));
+        }
+        return builder.build();
+    }
+
+}
@@ -0,0 +1,156 @@
+/*
+ * CarbonChat
+ *
+ * Copyright (c) 2023 Josua Parks (Vicarious)
+ *                    Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.draycia.carbon.common.messaging;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import net.draycia.carbon.common.util.ConcurrentUtil;
+import ninja.egg82.messenger.MessagingService;
+import ninja.egg82.messenger.handler.MessagingHandler;
+import ninja.egg82.messenger.packets.Packet;
+import org.apache.logging.log4j.Logger;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.framework.qual.DefaultQualifier;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Messaging service connecting servers running in the same JVM, for testing messaging without a broker.
+ *
+ * <p>Services joining a network with the same name receive each other's packets. Packets are written and read
+ * back for every receiver, and delivered in order on a thread of the receiving service.</p>
+ */
+@DefaultQualifier(NonNull.class)
+public final class LoopbackMessagingService implements MessagingService {
+
+    private static final Map<String, Map<UUID, LoopbackMessagingService>> NETWORKS = new ConcurrentHashMap<>();
+
+    private static final ClassValue<@Nullable Constructor<?>> PACKET_CONSTRUCTORS = new ClassValue<>() {
+        @Override
+        protected @Nullable Constructor<?> computeValue(final Class<?> type) {
+            try {
+                return type.getConstructor(UUID.class, ByteBuf.class);
+            } catch (final NoSuchMethodException exception) {
+                return null;
+            }
+        }
+    };
+
+    private final String name;
+    private final String network;
+    private final UUID serverId;
+    private final MessagingHandler handler;
+    private final ExecutorService delivery;
+    private volatile boolean closed = false;
+
+    LoopbackMessagingService(
+        final String name,
+        final String network,
+        final UUID serverId,
+        final MessagingHandler handler,
+        final Logger logger
+    ) {
+        this.name = name;
+        this.network = network;
+        this.serverId = serverId;
+        this.handler = handler;
+        this.delivery = Executors.newSingleThreadExecutor(ConcurrentUtil.carbonThreadFactory(logger, "Loopback Messaging"));
+
+        NETWORKS.computeIfAbsent(network, $ -> new ConcurrentHashMap<>()).put(serverId, this);
+    }
+
+    @Override
+    public @NotNull String getName() {
+        return this.name;
+    }
+
+    @Override
+    public void close() {
+        this.closed = true;
+        NETWORKS.computeIfPresent(this.network, ($, services) -> {
+            services.remove(this.serverId, this);
+            return services.isEmpty() ? null : services;
+        });
+        ConcurrentUtil.shutdownExecutor(this.delivery, TimeUnit.SECONDS, 5);
+    }
+
+    @Override
+    public boolean isClosed() {
+        return this.closed;
+    }
+
+    @Override
+    public void sendPacket(final @NotNull UUID messageId, final @NotNull Packet packet) {
+        if (this.closed) {
+            return;
+        }
+
+        final @Nullable Map<UUID, LoopbackMessagingService> services = NETWORKS.get(this.network);
+        if (services == null) {
+            return;
+        }
+
+        // Like a broker, servers do not receive their own packets
+        for (final LoopbackMessagingService service : services.values()) {
+            if (service != this) {
+                service.receive(messageId, this.name, packet);
+            }
+        }
+    }
+
+    private void receive(final UUID messageId, final String fromMessenger, final Packet packet) {
+        final Packet copy = copy(packet);
+        try {
+            this.delivery.execute(() -> this.handler.handlePacket(messageId, fromMessenger, copy));
+        } catch (final RuntimeException exception) {
+            // Rejected because this service was closed meanwhile
+            if (!this.closed) {
+                throw exception;
+            }
+        }
+    }
+
+    // Written and read back so receivers get their own instance and serialization is tested too
+    private static Packet copy(final Packet packet) {
+        final @Nullable Constructor<?> constructor = PACKET_CONSTRUCTORS.get(packet.getClass());
+        if (constructor == null) {
+            throw new IllegalArgumentException("Packet " + packet.getClass().getName() + " has no (UUID, ByteBuf) constructor to read it with");
+        }
+
+        final ByteBuf buffer = Unpooled.buffer();
+        try {
+            packet.write(buffer);
+            return (Packet) constructor.newInstance(packet.getSender(), buffer);
+        } catch (final InstantiationException | IllegalAccessException | InvocationTargetException exception) {
+            throw new IllegalStateException("Failed to copy packet " + packet.getClass().getName(), exception);
+        } finally {
+            buffer.release();
+        }
+    }
+
+}
@@ -0,0 +1,216 @@
+/*
+ * CarbonChat
+ *
+ * Copyright (c) 2023 Josua Parks (Vicarious)
+ *                    Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.draycia.carbon.common.messaging;
+
+import io.netty.buffer.ByteBuf;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import ninja.egg82.messenger.handler.AbstractMessagingHandler;
+import ninja.egg82.messenger.handler.MessagingHandlerImpl;
+import ninja.egg82.messenger.packets.AbstractPacket;
+import ninja.egg82.messenger.packets.Packet;
+import ninja.egg82.messenger.services.PacketService;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoopbackMessagingServiceTest {
+
+    private static final Logger LOGGER = LogManager.getLogger(LoopbackMessagingServiceTest.class);
+    private static final String NETWORK = "carbon-test";
+    private static final long TIMEOUT_MILLIS = 5000;
+    private static final long QUIET_MILLIS = 200;
+
+    private final List<Server> servers = new ArrayList<>();
+
+    @AfterEach
+    void closeServers() {
+        for (final Server server : this.servers) {
+            server.close();
+        }
+    }
+
+    @Test
+    void deliversCopiesToEveryOtherServer() throws InterruptedException {
+        final Server sender = this.server(NETWORK);
+        final Server first = this.server(NETWORK);
+        final Server second = this.server(NETWORK);
+
+        final TestPacket packet = new TestPacket(sender.id, "hello");
+        sender.messaging.sendPacket(UUID.randomUUID(), packet);
+
+        for (final Server receiver : List.of(first, second)) {
+            final TestPacket received = receiver.next();
+            assertNotSame(packet, received);
+            assertEquals(sender.id, received.getSender());
+            assertEquals("hello", received.message);
+        }
+        assertNull(sender.quiet(), "servers must not receive their own packets");
+    }
+
+    @Test
+    void keepsNetworksApart() throws InterruptedException {
+        final Server sender = this.server(NETWORK);
+        final Server other = this.server(NETWORK + "-other");
+
+        sender.messaging.sendPacket(UUID.randomUUID(), new TestPacket(sender.id, "hello"));
+
+        assertNull(other.quiet());
+    }
+
+    @Test
+    void deliversInOrder() throws InterruptedException {
+        final Server sender = this.server(NETWORK);
+        final Server receiver = this.server(NETWORK);
+
+        for (int i = 0; i < 100; i++) {
+            sender.messaging.sendPacket(UUID.randomUUID(), new TestPacket(sender.id, Integer.toString(i)));
+        }
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(Integer.toString(i), receiver.next().message);
+        }
+    }
+
+    @Test
+    void stopsDeliveringWhenClosed() throws InterruptedException {
+        final Server sender = this.server(NETWORK);
+        final Server receiver = this.server(NETWORK);
+
+        receiver.close();
+        assertTrue(receiver.messaging.isClosed());
+        sender.messaging.sendPacket(UUID.randomUUID(), new TestPacket(sender.id, "hello"));
+
+        assertNull(receiver.quiet());
+    }
+
+    @Test
+    void rejectsPacketsItCannotCopy() {
+        final Server sender = this.server(NETWORK);
+        this.server(NETWORK);
+
+        assertThrows(IllegalArgumentException.class, () -> sender.messaging.sendPacket(UUID.randomUUID(), new UncopyablePacket(sender.id)));
+    }
+
+    private Server server(final String network) {
+        final Server server = new Server(network);
+        this.servers.add(server);
+        return server;
+    }
+
+    private static final class Server {
+
+        private final UUID id = UUID.randomUUID();
+        private final BlockingQueue<TestPacket> received = new LinkedBlockingQueue<>();
+        private final PacketService packetService = new PacketService(4, false, (byte) 1);
+        private final LoopbackMessagingService messaging;
+        private boolean closed = false;
+
+        private Server(final String network) {
+            final MessagingHandlerImpl handler = new MessagingHandlerImpl(this.packetService);
+            handler.addHandler(new AbstractMessagingHandler(this.packetService) {
+                @Override
+                protected boolean handlePacket(final @NotNull Packet packet) {
+                    if (packet instanceof TestPacket testPacket) {
+                        Server.this.received.add(testPacket);
+                        return true;
+                    }
+                    return false;
+                }
+            });
+            this.messaging = new LoopbackMessagingService("loopback-" + this.id, network, this.id, handler, LOGGER);
+        }
+
+        private TestPacket next() throws InterruptedException {
+            final TestPacket packet = this.received.poll(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            assertTrue(packet != null, "no packet received");
+            return packet;
+        }
+
+        private TestPacket quiet() throws InterruptedException {
+            return this.received.poll(QUIET_MILLIS, TimeUnit.MILLISECONDS);
+        }
+
+        private void close() {
+            if (this.closed) {
+                return;
+            }
+            this.closed = true;
+            this.messaging.close();
+            this.packetService.shutdown();
+        }
+
+    }
+
+    public static final class TestPacket extends AbstractPacket {
+
+        private String message;
+
+        TestPacket(final UUID sender, final String message) {
+            super(sender);
+            this.message = message;
+        }
+
+        public TestPacket(final UUID sender, final ByteBuf data) {
+            super(sender);
+            this.read(data);
+        }
+
+        @Override
+        public void read(final @NotNull ByteBuf buffer) {
+            this.message = this.readString(buffer);
+        }
+
+        @Override
+        public void write(final @NotNull ByteBuf buffer) {
+            this.writeString(this.message, buffer);
+        }
+
+    }
+
+    public static final class UncopyablePacket extends AbstractPacket {
+
+        UncopyablePacket(final UUID sender) {
+            super(sender);
+        }
+
+        @Override
+        public void read(final @NotNull ByteBuf buffer) {
+        }
+
+        @Override
+        public void write(final @NotNull ByteBuf buffer) {
+        }
+
+    }
+
+}
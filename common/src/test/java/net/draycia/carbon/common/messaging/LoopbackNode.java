@@ -0,0 +1,129 @@
+/*
+ * CarbonChat
+ *
+ * Copyright (c) 2023 Josua Parks (Vicarious)
+ *                    Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.draycia.carbon.common.messaging;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import net.draycia.carbon.common.messaging.packets.ChatMessagePacket;
+import net.draycia.carbon.common.util.ConcurrentUtil;
+import ninja.egg82.messenger.handler.AbstractMessagingHandler;
+import ninja.egg82.messenger.handler.MessagingHandlerImpl;
+import ninja.egg82.messenger.packets.Packet;
+import ninja.egg82.messenger.packets.server.InitializationPacket;
+import ninja.egg82.messenger.services.PacketService;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A server's messaging stack as MessagingManager sets it up, with a loopback broker in place of a real one.
+ *
+ * <p>Packets are queued on a {@link PacketBatcher}, sent through the {@link PacketService}, and received by a
+ * {@link MessagingHandlerImpl} with the {@link MessagingManager.CarbonServerHandler}. Received chat messages are
+ * passed to a listener instead of being rendered.</p>
+ */
+final class LoopbackNode implements AutoCloseable {
+
+    private static final Logger LOGGER = LogManager.getLogger(LoopbackNode.class);
+
+    final UUID id = UUID.randomUUID();
+    final PacketBatcher batcher;
+    private final byte protocolVersion;
+    private final PacketService packetService;
+    private final MessagingManager.CarbonServerHandler serverHandler;
+    private final LoopbackMessagingService messaging;
+    private final ScheduledExecutorService executor;
+
+    LoopbackNode(
+        final String network,
+        final byte protocolVersion,
+        final long maxBatchDelayMillis,
+        final int maxBatchSize,
+        final Consumer<ChatMessagePacket> chatListener
+    ) {
+        MessagingManager.registerPackets();
+
+        this.protocolVersion = protocolVersion;
+        this.packetService = new PacketService(4, false, protocolVersion);
+        this.executor = Executors.newSingleThreadScheduledExecutor(ConcurrentUtil.carbonThreadFactory(LOGGER, "LoopbackNode"));
+        this.batcher = new PacketBatcher(this.packetService, this.executor, maxBatchDelayMillis, TimeUnit.MILLISECONDS, maxBatchSize);
+
+        final MessagingHandlerImpl handlerImpl = new MessagingHandlerImpl(this.packetService);
+        this.serverHandler = new MessagingManager.CarbonServerHandler(this.id, this.packetService, handlerImpl);
+        handlerImpl.addHandler(this.serverHandler);
+        handlerImpl.addHandler(new AbstractMessagingHandler(this.packetService) {
+            @Override
+            protected boolean handlePacket(final @NotNull Packet packet) {
+                if (packet instanceof ChatMessagePacket chatMessage) {
+                    chatListener.accept(chatMessage);
+                    return true;
+                }
+                return false;
+            }
+        });
+
+        this.messaging = new LoopbackMessagingService("loopback-" + this.id, network, this.id, handlerImpl, LOGGER);
+        this.packetService.addMessenger(this.messaging);
+    }
+
+    /**
+     * Announce every node to the others, and wait until each has seen the others' protocol versions.
+     *
+     * @param nodes         nodes on the same network
+     * @param timeoutMillis longest time to wait
+     * @throws InterruptedException  if interrupted while waiting
+     * @throws IllegalStateException if the announcements were not all seen in time
+     */
+    static void connect(final List<LoopbackNode> nodes, final long timeoutMillis) throws InterruptedException {
+        for (final LoopbackNode node : nodes) {
+            node.packetService.queuePacket(new InitializationPacket(node.id, node.protocolVersion));
+            node.packetService.flushQueue();
+        }
+
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        for (final LoopbackNode node : nodes) {
+            for (final LoopbackNode other : nodes) {
+                while (other != node && !node.serverHandler.knows(other.id)) {
+                    if (System.nanoTime() > deadline) {
+                        throw new IllegalStateException("Server " + node.id + " did not see " + other.id);
+                    }
+                    Thread.sleep(5);
+                }
+            }
+        }
+    }
+
+    void send(final Packet packet) {
+        this.batcher.queue(packet);
+    }
+
+    @Override
+    public void close() {
+        ConcurrentUtil.shutdownExecutor(this.executor, TimeUnit.SECONDS, 5);
+        this.batcher.flush();
+        this.messaging.close();
+        this.packetService.shutdown();
+    }
+
+}
@@ -0,0 +1,118 @@
+/*
+ * CarbonChat
+ *
+ * Copyright (c) 2023 Josua Parks (Vicarious)
+ *                    Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.draycia.carbon.common.messaging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import net.draycia.carbon.common.messaging.packets.ChatMessagePacket;
+import net.draycia.carbon.common.messaging.packets.PacketEncoding;
+import net.draycia.carbon.common.util.Histogram;
+import net.kyori.adventure.key.Key;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+
+/**
+ * Throughput and latency harness for cross-server chat.
+ *
+ * <p>Sends chat messages from one loopback server to the others through the same batching, encoding and handler
+ * path as a live network, and prints delivery rate and end to end latency. The loopback broker has no network
+ * cost, so the numbers show the cost of Carbon's own messaging code, not of a broker.</p>
+ *
+ * <p>Arguments, all optional: servers (3), messages (20000), protocol version (3), compression threshold (256),
+ * batch delay in milliseconds (1), batch size (64).</p>
+ */
+public final class MessagingBenchmark {
+
+    private static final Key CHANNEL = Key.key("carbon", "global");
+
+    private MessagingBenchmark() {
+    }
+
+    public static void main(final String[] args) throws InterruptedException {
+        final int servers = argument(args, 0, 3);
+        final int messages = argument(args, 1, 20000);
+        final byte protocolVersion = (byte) argument(args, 2, PacketEncoding.SIZED_COMPONENTS_VERSION);
+        final int threshold = argument(args, 3, 256);
+        final int batchDelay = argument(args, 4, 1);
+        final int batchSize = argument(args, 5, 64);
+
+        PacketEncoding.compressionThreshold(threshold);
+
+        // Latency in microseconds, the send time travels in the username field
+        final Histogram latency = new Histogram(50, 100, 200, 500, 1000, 2000, 5000, 10000, 20000, 50000, 100000);
+        final CountDownLatch delivered = new CountDownLatch(messages * (servers - 1));
+        final String network = "carbon-benchmark-" + UUID.randomUUID();
+        final List<LoopbackNode> nodes = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < servers; i++) {
+                nodes.add(new LoopbackNode(network, protocolVersion, batchDelay, batchSize, packet -> {
+                    latency.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - Long.parseLong(packet.username())));
+                    delivered.countDown();
+                }));
+            }
+            LoopbackNode.connect(nodes, 5000);
+
+            final LoopbackNode sender = nodes.get(0);
+            final UUID userId = UUID.randomUUID();
+            final Component message = Component.text()
+                .append(Component.text("[Global] ", NamedTextColor.GOLD))
+                .append(Component.text("Notch", NamedTextColor.AQUA))
+                .append(Component.text(": has anyone seen the diamonds I left in the chest by spawn?"))
+                .build();
+
+            final long start = System.nanoTime();
+            for (int i = 0; i < messages; i++) {
+                sender.send(new ChatMessagePacket(sender.id, userId, "carbon.channel.global", CHANNEL, Long.toString(System.nanoTime()), message));
+            }
+            sender.batcher.flush();
+
+            if (!delivered.await(1, TimeUnit.MINUTES)) {
+                System.out.println("Timed out with " + delivered.getCount() + " deliveries missing");
+            }
+            final double seconds = (System.nanoTime() - start) / 1e9;
+
+            System.out.printf(Locale.ROOT, "%d servers, %d messages, protocol version %d, compression threshold %d%n",
+                servers, messages, protocolVersion, threshold);
+            System.out.printf(Locale.ROOT, "throughput: %.0f messages/s sent, %.0f deliveries/s%n",
+                messages / seconds, latency.count() / seconds);
+            System.out.println("latency: " + latency.summary("us"));
+            System.out.println("batch size: " + sender.batcher.batchSizes().summary(""));
+            System.out.println("batch queue time: " + sender.batcher.queueMillis().summary("ms"));
+            if (PacketEncoding.compressedPayloads() > 0) {
+                System.out.printf(Locale.ROOT, "compression: %d payloads, ratio %.2f%n",
+                    PacketEncoding.compressedPayloads(), PacketEncoding.compressionRatio());
+            }
+        } finally {
+            for (final LoopbackNode node : nodes) {
+                node.close();
+            }
+        }
+    }
+
+    private static int argument(final String[] args, final int index, final int fallback) {
+        return args.length > index ? Integer.parseInt(args[index]) : fallback;
+    }
+
+}
@@ -0,0 +1,186 @@
+/*
+ * CarbonChat
+ *
+ * Copyright (c) 2023 Josua Parks (Vicarious)
+ *                    Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.draycia.carbon.common.messaging.packets;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import net.kyori.adventure.key.Key;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.event.ClickEvent;
+import net.kyori.adventure.text.event.HoverEvent;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.format.Style;
+import net.kyori.adventure.text.format.TextColor;
+import net.kyori.adventure.text.format.TextDecoration;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ComponentCodecTest {
+
+    private static final int FUZZ_ITERATIONS = 2000;
+    private static final int MAX_DEPTH = 4;
+    private static final String[] WORDS = {"", "hello", "world", "carbon", "ünïcödé", "😀", "<red>", "\n"};
+
+    @Test
+    void roundTripsEveryBinaryNodeType() {
+        final Component component = Component.text()
+            .content("Hello ")
+            .color(NamedTextColor.GRAY)
+            .decorate(TextDecoration.BOLD)
+            .decoration(TextDecoration.ITALIC, false)
+            .font(Key.key("carbon", "font"))
+            .insertion("insert")
+            .clickEvent(ClickEvent.suggestCommand("/msg Vicarious "))
+            .hoverEvent(HoverEvent.showText(Component.text("hover", TextColor.color(0x123456))))
+            .append(Component.translatable("chat.type.text", "fallback", Component.text("a"), Component.keybind("key.jump")))
+            .append(Component.keybind("key.chat", NamedTextColor.GOLD))
+            .build();
+
+        assertEquals(component, roundTrip(component));
+    }
+
+    @Test
+    void embedsOtherComponentsAsJson() {
+        final Component component = Component.text("parent")
+            .append(Component.selector("@p"))
+            .append(Component.text("item").hoverEvent(HoverEvent.showItem(Key.key("minecraft", "stone"), 2)));
+
+        assertEquals(component, roundTrip(component));
+    }
+
+    @Test
+    void keepsNamedColorsNamed() {
+        final Component read = roundTrip(Component.text("gray", NamedTextColor.GRAY));
+
+        assertSame(NamedTextColor.GRAY, read.color());
+    }
+
+    @Test
+    void roundTripsRandomComponents() {
+        final Random random = new Random(4242);
+
+        for (int i = 0; i < FUZZ_ITERATIONS; i++) {
+            final Component component = randomComponent(random, 0);
+
+            assertEquals(component, roundTrip(component), "iteration " + i);
+        }
+    }
+
+    @Test
+    void rejectsTruncatedInput() {
+        final Random random = new Random(2424);
+
+        for (int i = 0; i < FUZZ_ITERATIONS; i++) {
+            final ByteBuf buffer = Unpooled.buffer();
+            ComponentCodec.write(randomComponent(random, 0), buffer);
+            final ByteBuf truncated = buffer.slice(0, random.nextInt(buffer.readableBytes()));
+
+            assertThrows(IndexOutOfBoundsException.class, () -> ComponentCodec.read(truncated), "iteration " + i);
+        }
+    }
+
+    private static Component roundTrip(final Component component) {
+        final ByteBuf buffer = Unpooled.buffer();
+        ComponentCodec.write(component, buffer);
+        final Component read = ComponentCodec.read(buffer);
+
+        assertEquals(0, buffer.readableBytes(), "unread bytes");
+        return read;
+    }
+
+    private static Component randomComponent(final Random random, final int depth) {
+        Component component = switch (random.nextInt(depth < MAX_DEPTH ? 4 : 3)) {
+            case 0 -> Component.text(word(random));
+            case 1 -> Component.keybind("key." + word(random));
+            case 2 -> Component.selector("@" + word(random));
+            default -> {
+                final List<Component> arguments = new ArrayList<>();
+                for (int i = random.nextInt(3); i > 0; i--) {
+                    arguments.add(randomComponent(random, depth + 1));
+                }
+                yield Component.translatable("key." + word(random), random.nextBoolean() ? word(random) : null, arguments);
+            }
+        };
+
+        component = component.style(randomStyle(random));
+
+        if (depth < MAX_DEPTH && random.nextInt(4) == 0) {
+            component = component.hoverEvent(HoverEvent.showText(randomComponent(random, depth + 1)));
+        }
+
+        if (depth < MAX_DEPTH) {
+            final List<Component> children = new ArrayList<>();
+            for (int i = random.nextInt(3); i > 0; i--) {
+                children.add(randomComponent(random, depth + 1));
+            }
+            component = component.children(children);
+        }
+
+        return component;
+    }
+
+    private static Style randomStyle(final Random random) {
+        final Style.Builder style = Style.style();
+
+        switch (random.nextInt(3)) {
+            case 0 -> style.color(List.copyOf(NamedTextColor.NAMES.values()).get(random.nextInt(NamedTextColor.NAMES.values().size())));
+            case 1 -> style.color(hexColor(random));
+            default -> {
+            }
+        }
+        if (random.nextInt(4) == 0) {
+            style.font(Key.key("carbon", "font_" + random.nextInt(3)));
+        }
+        if (random.nextInt(4) == 0) {
+            style.insertion(word(random));
+        }
+        if (random.nextInt(4) == 0) {
+            final ClickEvent.Action[] actions = ClickEvent.Action.values();
+            style.clickEvent(ClickEvent.clickEvent(actions[random.nextInt(actions.length)], word(random)));
+        }
+        for (final TextDecoration decoration : TextDecoration.values()) {
+            final TextDecoration.State[] states = TextDecoration.State.values();
+            style.decoration(decoration, states[random.nextInt(states.length)]);
+        }
+
+        return style.build();
+    }
+
+    private static TextColor hexColor(final Random random) {
+        while (true) {
+            final int value = random.nextInt(0x1000000);
+            // Values of named colors are read back as the named color
+            if (NamedTextColor.namedColor(value) == null) {
+                return TextColor.color(value);
+            }
+        }
+    }
+
+    private static String word(final Random random) {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+
+}
@@ -0,0 +1,213 @@
+/*
+ * CarbonChat
+ *
+ * Copyright (c) 2023 Josua Parks (Vicarious)
+ *                    Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.draycia.carbon.common.messaging.packets;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.Supplier;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PacketCompressionTest {
+
+    private static final int THRESHOLD = 256;
+    // Written after the zero length prefix of binary components
+    private static final int MARKER_INDEX = 1;
+    private static final byte COMPRESSED = 0;
+    private static final byte SIZED = -1;
+
+    private final ChatMessagePacket packet = new ChatMessagePacket();
+
+    @BeforeEach
+    void enableCompression() {
+        PacketEncoding.peerProtocolVersion(PacketEncoding.COMPRESSION_VERSION);
+        PacketEncoding.compressionThreshold(THRESHOLD);
+    }
+
+    @AfterEach
+    void resetEncoding() {
+        PacketEncoding.peerProtocolVersion(0);
+        PacketEncoding.compressionThreshold(0);
+    }
+
+    @Test
+    void leavesSmallComponentsUncompressed() {
+        final Component component = Component.text("short message", NamedTextColor.GRAY);
+        final ByteBuf buffer = this.write(component);
+
+        assertNotEquals(COMPRESSED, buffer.getByte(MARKER_INDEX));
+        assertEquals(component, this.read(buffer));
+    }
+
+    @Test
+    void compressesLargeComponents() {
+        final Component component = repetitive(64);
+        final ByteBuf uncompressed = Unpooled.buffer();
+        ComponentCodec.write(component, uncompressed);
+        final ByteBuf buffer = this.write(component);
+
+        assertTrue(uncompressed.readableBytes() >= THRESHOLD);
+        assertEquals(COMPRESSED, buffer.getByte(MARKER_INDEX));
+        assertTrue(buffer.readableBytes() < uncompressed.readableBytes());
+        assertEquals(component, this.read(buffer));
+    }
+
+    @Test
+    void doesNotCompressBelowTheCompressionVersion() {
+        PacketEncoding.peerProtocolVersion(PacketEncoding.BINARY_COMPONENTS_VERSION);
+        final Component component = repetitive(64);
+        final ByteBuf buffer = this.write(component);
+
+        assertNotEquals(COMPRESSED, buffer.getByte(MARKER_INDEX));
+        assertEquals(component, this.read(buffer));
+    }
+
+    @Test
+    void keepsIncompressiblePayloadsUncompressed() {
+        final byte[] payload = new byte[4096];
+        new Random(1337).nextBytes(payload);
+
+        assertNull(PacketEncoding.deflate(payload));
+
+        // Deflate's framing alone is larger than a tiny payload
+        PacketEncoding.compressionThreshold(1);
+        final Component component = Component.text("xq");
+        final ByteBuf buffer = this.write(component);
+
+        assertNotEquals(COMPRESSED, buffer.getByte(MARKER_INDEX));
+        assertEquals(component, this.read(buffer));
+    }
+
+    @Test
+    void requiresTheDictionaryToInflate() throws DataFormatException {
+        final byte[] payload = "{\"text\":\"\",\"extra\":[{\"translate\":\"item.minecraft.stone\",\"with\":[]}]}"
+            .repeat(8).getBytes(StandardCharsets.UTF_8);
+        final byte[] compressed = PacketEncoding.deflate(payload);
+        assertNotNull(compressed);
+
+        final Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            assertEquals(0, inflater.inflate(new byte[payload.length]));
+            assertTrue(inflater.needsDictionary());
+        } finally {
+            inflater.end();
+        }
+
+        assertArrayEquals(payload, PacketEncoding.inflate(compressed, payload.length));
+    }
+
+    @Test
+    void sizesUncompressedComponents() {
+        PacketEncoding.peerProtocolVersion(PacketEncoding.SIZED_COMPONENTS_VERSION);
+        final Component component = Component.text("short message", NamedTextColor.GRAY);
+        final ByteBuf buffer = this.write(component);
+
+        assertEquals(SIZED, buffer.getByte(MARKER_INDEX));
+        assertEquals(component, this.read(buffer));
+
+        // Compressed components already carry their length
+        final Component large = repetitive(64);
+        final ByteBuf compressed = this.write(large);
+
+        assertEquals(COMPRESSED, compressed.getByte(MARKER_INDEX));
+        assertEquals(large, this.read(compressed));
+    }
+
+    @Test
+    void skipsSizedComponentsWithoutDecoding() {
+        PacketEncoding.peerProtocolVersion(PacketEncoding.SIZED_COMPONENTS_VERSION);
+        final ByteBuf buffer = this.write(Component.text("short message"));
+
+        // Replace the codec version after the marker and the one byte length
+        buffer.setByte(MARKER_INDEX + 2, 99);
+        final Supplier<Component> component = this.packet.readLazyComponent(buffer);
+
+        assertEquals(0, buffer.readableBytes(), "unread bytes");
+        assertThrows(IllegalArgumentException.class, component::get);
+    }
+
+    @Test
+    void rejectsTruncatedPayloads() {
+        final byte[] payload = "carbon ".repeat(200).getBytes(StandardCharsets.UTF_8);
+        final byte[] compressed = PacketEncoding.deflate(payload);
+        assertNotNull(compressed);
+
+        final byte[] truncated = Arrays.copyOf(compressed, compressed.length / 2);
+        assertThrows(IllegalArgumentException.class, () -> PacketEncoding.inflate(truncated, payload.length));
+
+        final ByteBuf buffer = this.write(repetitive(64));
+        final ByteBuf truncatedBuffer = buffer.slice(0, buffer.readableBytes() - 4);
+        assertThrows(IndexOutOfBoundsException.class, () -> this.read(truncatedBuffer));
+    }
+
+    @Test
+    void rejectsCorruptPayloads() {
+        final byte[] payload = "carbon ".repeat(200).getBytes(StandardCharsets.UTF_8);
+        final byte[] compressed = PacketEncoding.deflate(payload);
+        assertNotNull(compressed);
+
+        // The zlib header is checked before anything is inflated
+        final byte[] corrupt = compressed.clone();
+        corrupt[0] ^= 0x0F;
+        assertThrows(IllegalArgumentException.class, () -> PacketEncoding.inflate(corrupt, payload.length));
+
+        // A declared length that doesn't match the payload
+        assertThrows(IllegalArgumentException.class, () -> PacketEncoding.inflate(compressed, payload.length + 1));
+    }
+
+    private ByteBuf write(final Component component) {
+        final ByteBuf buffer = Unpooled.buffer();
+        this.packet.writeComponent(component, buffer);
+        return buffer;
+    }
+
+    private Component read(final ByteBuf buffer) {
+        final Component component = this.packet.readComponent(buffer);
+
+        assertEquals(0, buffer.readableBytes(), "unread bytes");
+        return component;
+    }
+
+    private static Component repetitive(final int children) {
+        final Component.Builder builder = Component.text().content("Hello ");
+        for (int i = 0; i < children; i++) {
+            builder.append(Component.text("carbon chat message " + i, NamedTextColor.GRAY));
+        }
+        return builder.build();
+    }
+
+}
@@ -35,6 +35,7 @@ import net.draycia.carbon.common.DataDirectory;
 import net.draycia.carbon.common.PeriodicTasks;
 import net.draycia.carbon.common.channels.CarbonChannelRegistry;
 import net.draycia.carbon.common.command.commands.ExecutionCoordinatorHolder;
+import net.draycia.carbon.common.listeners.PermissionChangeListener;
 import net.draycia.carbon.common.messages.CarbonMessages;
 import net.draycia.carbon.common.messaging.MessagingManager;
 import net.draycia.carbon.common.users.ProfileCache;
@@ -45,6 +46,7 @@ import net.draycia.carbon.fabric.listeners.FabricJoinQuitListener;
 import net.draycia.carbon.fabric.users.CarbonPlayerFabric;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
 import net.fabricmc.fabric.api.message.v1.ServerMessageEvents;
+import net.fabricmc.fabric.api.networking.v1.ServerLoginConnectionEvents;
 import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
 import net.fabricmc.loader.api.FabricLoader;
 import net.fabricmc.loader.api.entrypoint.EntrypointContainer;
@@ -133,6 +135,12 @@ public final class CarbonChatFabric extends CarbonChatInternal<CarbonPlayerFabri
     }
 
     private void registerServerLifecycleListeners() {
+        ServerLifecycleEvents.SERVER_STARTED.register(server -> {
+            // LuckPerms enables with the server, after Carbon has initialized
+            if (this.luckPermsLoaded()) {
+                this.injector().getInstance(PermissionChangeListener.class).subscribeToLuckPerms();
+            }
+        });
         ServerLifecycleEvents.SERVER_STOPPED.register(server -> this.shutdown());
     }
 
@@ -140,6 +148,7 @@ public final class CarbonChatFabric extends CarbonChatInternal<CarbonPlayerFabri
         final FabricJoinQuitListener listener = this.injector().getInstance(FabricJoinQuitListener.class);
         ServerPlayConnectionEvents.DISCONNECT.register(listener);
         ServerPlayConnectionEvents.JOIN.register(listener);
+        ServerLoginConnectionEvents.QUERY_START.register(listener);
     }
 
     public boolean luckPermsLoaded() {
@@ -26,12 +26,11 @@ import java.lang.reflect.Type;
 import java.util.Map;
 import net.draycia.carbon.api.util.SourcedAudience;
 import net.draycia.carbon.common.config.ConfigFactory;
+import net.draycia.carbon.common.messages.MessageTemplates;
 import net.draycia.carbon.fabric.users.CarbonPlayerFabric;
 import net.fabricmc.loader.api.FabricLoader;
 import net.kyori.adventure.audience.Audience;
 import net.kyori.adventure.text.Component;
-import net.kyori.adventure.text.minimessage.MiniMessage;
-import net.kyori.adventure.text.minimessage.tag.Tag;
 import net.kyori.adventure.text.minimessage.tag.resolver.TagResolver;
 import net.kyori.moonshine.message.IMessageRenderer;
 import org.checkerframework.checker.nullness.qual.NonNull;
@@ -41,10 +40,12 @@ import org.checkerframework.framework.qual.DefaultQualifier;
 public class FabricMessageRenderer<T extends Audience> implements IMessageRenderer<T, String, Component, Component> {
 
     private final ConfigFactory configFactory;
+    private final MessageTemplates messageTemplates;
 
     @Inject
-    public FabricMessageRenderer(final ConfigFactory configFactory) {
+    public FabricMessageRenderer(final ConfigFactory configFactory, final MessageTemplates messageTemplates) {
         this.configFactory = configFactory;
+        this.messageTemplates = messageTemplates;
     }
 
     @Override
@@ -57,10 +58,6 @@ public class FabricMessageRenderer<T extends Audience> implements IMessageRender
     ) {
         final TagResolver.Builder tagResolver = TagResolver.builder();
 
-        for (final var entry : resolvedPlaceholders.entrySet()) {
-            tagResolver.tag(entry.getKey(), Tag.inserting(entry.getValue()));
-        }
-
         final String placeholderResolvedMessage = this.configFactory.primaryConfig().applyCustomPlaceholders(intermediateMessage);
 
         if (FabricLoader.getInstance().isModLoaded("miniplaceholders")) {
@@ -76,7 +73,7 @@ public class FabricMessageRenderer<T extends Audience> implements IMessageRender
             }
         }
 
-        return MiniMessage.miniMessage().deserialize(placeholderResolvedMessage, tagResolver.build());
+        return this.messageTemplates.deserialize(placeholderResolvedMessage, resolvedPlaceholders, tagResolver.build());
     }
 
 }
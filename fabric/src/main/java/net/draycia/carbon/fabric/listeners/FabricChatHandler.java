@@ -26,6 +26,8 @@ import net.draycia.carbon.api.util.KeyedRenderer;
 import net.draycia.carbon.common.config.ConfigFactory;
 import net.draycia.carbon.common.listeners.ChatListenerInternal;
 import net.draycia.carbon.common.messages.CarbonMessages;
+import net.draycia.carbon.common.users.MessageTagPermissions;
+import net.draycia.carbon.common.users.UserLoadMetrics;
 import net.draycia.carbon.fabric.CarbonChatFabric;
 import net.draycia.carbon.fabric.users.CarbonPlayerFabric;
 import net.fabricmc.fabric.api.message.v1.ServerMessageEvents;
@@ -42,15 +44,19 @@ import org.jetbrains.annotations.Nullable;
 public class FabricChatHandler extends ChatListenerInternal implements ServerMessageEvents.AllowChatMessage {
 
     private final CarbonChatFabric carbonChat;
+    private final UserLoadMetrics userLoadMetrics;
 
     @Inject
     public FabricChatHandler(
         final ConfigFactory configFactory,
         final CarbonChatFabric carbonChat,
-        final CarbonMessages carbonMessages
+        final CarbonMessages carbonMessages,
+        final UserLoadMetrics userLoadMetrics,
+        final MessageTagPermissions messageTagPermissions
     ) {
-        super(carbonChat.eventHandler(), carbonMessages, configFactory);
+        super(carbonChat.eventHandler(), carbonMessages, configFactory, messageTagPermissions);
         this.carbonChat = carbonChat;
+        this.userLoadMetrics = userLoadMetrics;
     }
 
     @Override
@@ -59,7 +65,7 @@ public class FabricChatHandler extends ChatListenerInternal implements ServerMes
             return false;
         }
 
-        final @Nullable CarbonPlayer sender = this.carbonChat.userManager().user(serverPlayer.getUUID()).join();
+        final @Nullable CarbonPlayer sender = this.userLoadMetrics.awaitChatSender(this.carbonChat.userManager().user(serverPlayer.getUUID()));
 
         final String content = chatMessage.decoratedContent().getString();
         final CarbonChatEvent chatEvent = this.prepareAndEmitChatEvent(sender, content, null);
@@ -20,46 +20,90 @@
 package net.draycia.carbon.fabric.listeners;
 
 import com.google.inject.Inject;
+import com.mojang.authlib.GameProfile;
 import java.util.List;
+import net.draycia.carbon.common.channels.ChannelMembership;
 import net.draycia.carbon.common.config.ConfigFactory;
+import net.draycia.carbon.common.listeners.PingHandler;
 import net.draycia.carbon.common.users.ProfileCache;
 import net.draycia.carbon.common.users.UserManagerInternal;
+import net.draycia.carbon.fabric.mixin.ServerLoginPacketListenerImplAccessor;
 import net.fabricmc.fabric.api.networking.v1.PacketSender;
+import net.fabricmc.fabric.api.networking.v1.ServerLoginConnectionEvents;
+import net.fabricmc.fabric.api.networking.v1.ServerLoginNetworking;
 import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
 import net.minecraft.network.protocol.game.ClientboundCustomChatCompletionsPacket;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.network.ServerGamePacketListenerImpl;
+import net.minecraft.server.network.ServerLoginPacketListenerImpl;
 import org.apache.logging.log4j.Logger;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.framework.qual.DefaultQualifier;
 
+import static net.draycia.carbon.common.util.PlayerUtils.joinExceptionHandler;
+import static net.draycia.carbon.common.util.PlayerUtils.loadOnLogin;
 import static net.draycia.carbon.common.util.PlayerUtils.saveExceptionHandler;
 
 @DefaultQualifier(NonNull.class)
-public class FabricJoinQuitListener implements ServerPlayConnectionEvents.Join, ServerPlayConnectionEvents.Disconnect {
+public class FabricJoinQuitListener implements ServerLoginConnectionEvents.QueryStart, ServerPlayConnectionEvents.Join, ServerPlayConnectionEvents.Disconnect {
 
     private final ProfileCache profileCache;
     private final Logger logger;
     private final ConfigFactory configFactory;
     private final UserManagerInternal<?> userManager;
+    private final ChannelMembership channelMembership;
+    private final PingHandler pingHandler;
 
     @Inject
     public FabricJoinQuitListener(
         final Logger logger,
         final ConfigFactory configFactory,
         final ProfileCache profileCache,
-        final UserManagerInternal<?> userManager
+        final UserManagerInternal<?> userManager,
+        final ChannelMembership channelMembership,
+        final PingHandler pingHandler
     ) {
         this.logger = logger;
         this.configFactory = configFactory;
         this.profileCache = profileCache;
         this.userManager = userManager;
+        this.channelMembership = channelMembership;
+        this.pingHandler = pingHandler;
+    }
+
+    @Override
+    public void onLoginStart(
+        final ServerLoginPacketListenerImpl handler,
+        final MinecraftServer server,
+        final PacketSender sender,
+        final ServerLoginNetworking.LoginSynchronizer synchronizer
+    ) {
+        final @Nullable GameProfile profile = ((ServerLoginPacketListenerImplAccessor) handler).access$gameProfile();
+        // Offline mode profiles do not have an id yet
+        if (profile == null || profile.getId() == null) {
+            return;
+        }
+
+        // Hold the login until the player is loaded, so their first chat message does not wait on storage
+        synchronizer.waitFor(loadOnLogin(
+            this.userManager,
+            profile.getId(),
+            this.configFactory.primaryConfig().userCacheSettings().loginLoadTimeout(),
+            this.logger
+        ));
     }
 
     @Override
     public void onPlayReady(final ServerGamePacketListenerImpl handler, final PacketSender sender, final MinecraftServer server) {
         this.profileCache.cache(handler.getPlayer().getUUID(), handler.getPlayer().getGameProfile().getName());
+        // Requested again now that the player is online, which keeps them out of the offline player cache
+        this.userManager.user(handler.getPlayer().getUUID())
+            .thenAccept(player -> {
+                this.channelMembership.joined(player);
+                this.pingHandler.joined(player);
+            })
+            .exceptionally(joinExceptionHandler(this.logger));
 
         final @Nullable List<String> suggestions = this.configFactory.primaryConfig().customChatSuggestions();
 
@@ -72,6 +116,8 @@ public class FabricJoinQuitListener implements ServerPlayConnectionEvents.Join,
 
     @Override
     public void onPlayDisconnect(final ServerGamePacketListenerImpl handler, final MinecraftServer server) {
+        this.channelMembership.quit(handler.getPlayer().getGameProfile().getId());
+        this.pingHandler.quit(handler.getPlayer().getGameProfile().getId());
         this.userManager.loggedOut(handler.getPlayer().getGameProfile().getId())
             .exceptionally(saveExceptionHandler(this.logger, handler.getPlayer().getGameProfile().getName(), handler.getPlayer().getGameProfile().getId()));
     }
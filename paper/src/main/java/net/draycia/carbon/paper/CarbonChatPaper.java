@@ -51,11 +51,14 @@ import net.kyori.moonshine.message.IMessageRenderer;
 import org.apache.logging.log4j.LogManager;
 import org.bstats.bukkit.Metrics;
 import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
 import org.bukkit.event.Listener;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.framework.qual.DefaultQualifier;
 
+import static net.draycia.carbon.common.util.PlayerUtils.joinExceptionHandler;
+
 @DefaultQualifier(NonNull.class)
 @Singleton
 public final class CarbonChatPaper extends CarbonChatInternal<CarbonPlayerPaper> {
@@ -108,6 +111,10 @@ public final class CarbonChatPaper extends CarbonChatInternal<CarbonPlayerPaper>
         this.init();
         this.packetService();
 
+        // Players that are already online (i.e. after a reload) never fire a join event, load them all at once
+        this.userManager().users(this.plugin.getServer().getOnlinePlayers().stream().map(Player::getUniqueId).toList())
+            .exceptionally(joinExceptionHandler(this.logger()));
+
         for (final Class<? extends Listener> listenerClass : LISTENER_CLASSES) {
             this.plugin.getServer().getPluginManager().registerEvents(
                 this.injector().getInstance(listenerClass),
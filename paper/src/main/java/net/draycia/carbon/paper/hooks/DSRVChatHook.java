@@ -34,7 +34,7 @@ import net.draycia.carbon.api.event.CarbonEventHandler;
 import net.draycia.carbon.api.event.events.CarbonChatEvent;
 import net.draycia.carbon.api.users.CarbonPlayer;
 import net.draycia.carbon.common.channels.CarbonChannelRegistry;
-import net.draycia.carbon.common.users.WrappedCarbonPlayer;
+import net.draycia.carbon.common.users.MessageTagPermissions;
 import net.draycia.carbon.common.util.ChannelUtils;
 import net.draycia.carbon.paper.users.CarbonPlayerPaper;
 import net.kyori.adventure.text.Component;
@@ -56,7 +56,8 @@ public final class DSRVChatHook implements ChatHook {
         final CarbonEventHandler events,
         final CarbonChannelRegistry channelRegistry,
         final JavaPlugin plugin,
-        final Logger logger
+        final Logger logger,
+        final MessageTagPermissions messageTagPermissions
     ) {
         this.channelRegistry = channelRegistry;
         this.plugin = plugin;
@@ -78,13 +79,7 @@ public final class DSRVChatHook implements ChatHook {
             }
 
             final String messageContents = PlainTextComponentSerializer.plainText().serialize(messageComponent);
-            final Component eventMessage;
-
-            if (carbonPlayer instanceof WrappedCarbonPlayer wrapped) {
-                eventMessage = wrapped.parseMessageTags(messageContents);
-            } else {
-                eventMessage = WrappedCarbonPlayer.parseMessageTags(messageContents, carbonPlayer::hasPermission);
-            }
+            final Component eventMessage = messageTagPermissions.parse(carbonPlayer, messageContents);
 
             DiscordSRV.debug(Debug.MINECRAFT_TO_DISCORD, "Received a CarbonChatEvent (player: " + carbonPlayer.username() + ")");
 
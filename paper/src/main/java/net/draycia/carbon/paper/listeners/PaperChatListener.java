@@ -27,6 +27,8 @@ import net.draycia.carbon.api.users.CarbonPlayer;
 import net.draycia.carbon.common.config.ConfigFactory;
 import net.draycia.carbon.common.listeners.ChatListenerInternal;
 import net.draycia.carbon.common.messages.CarbonMessages;
+import net.draycia.carbon.common.users.MessageTagPermissions;
+import net.draycia.carbon.common.users.UserLoadMetrics;
 import net.kyori.adventure.audience.Audience;
 import net.kyori.adventure.identity.Identity;
 import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
@@ -41,22 +43,26 @@ import org.checkerframework.framework.qual.DefaultQualifier;
 public final class PaperChatListener extends ChatListenerInternal implements Listener {
 
     private final CarbonChat carbonChat;
+    private final UserLoadMetrics userLoadMetrics;
     final ConfigFactory configFactory;
 
     @Inject
     public PaperChatListener(
         final CarbonChat carbonChat,
         final CarbonMessages carbonMessages,
-        final ConfigFactory configFactory
+        final ConfigFactory configFactory,
+        final UserLoadMetrics userLoadMetrics,
+        final MessageTagPermissions messageTagPermissions
     ) {
-        super(carbonChat.eventHandler(), carbonMessages, configFactory);
+        super(carbonChat.eventHandler(), carbonMessages, configFactory, messageTagPermissions);
         this.carbonChat = carbonChat;
+        this.userLoadMetrics = userLoadMetrics;
         this.configFactory = configFactory;
     }
 
     @EventHandler(ignoreCancelled = true, priority = EventPriority.HIGHEST)
     public void onPaperChat(final @NonNull AsyncChatEvent event) {
-        final @Nullable CarbonPlayer sender = this.carbonChat.userManager().user(event.getPlayer().getUniqueId()).join();
+        final @Nullable CarbonPlayer sender = this.userLoadMetrics.awaitChatSender(this.carbonChat.userManager().user(event.getPlayer().getUniqueId()));
 
         if (event.viewers().isEmpty()) {
             return;
@@ -21,13 +21,16 @@ package net.draycia.carbon.paper.listeners;
 
 import com.google.inject.Inject;
 import java.util.List;
+import net.draycia.carbon.common.channels.ChannelMembership;
 import net.draycia.carbon.common.config.ConfigFactory;
+import net.draycia.carbon.common.listeners.PingHandler;
 import net.draycia.carbon.common.users.ProfileCache;
 import net.draycia.carbon.paper.PaperUserManager;
 import org.apache.logging.log4j.Logger;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 import org.checkerframework.checker.nullness.qual.NonNull;
@@ -35,6 +38,7 @@ import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.framework.qual.DefaultQualifier;
 
 import static net.draycia.carbon.common.util.PlayerUtils.joinExceptionHandler;
+import static net.draycia.carbon.common.util.PlayerUtils.loadOnLogin;
 import static net.draycia.carbon.common.util.PlayerUtils.saveExceptionHandler;
 
 @DefaultQualifier(NonNull.class)
@@ -44,18 +48,24 @@ public class PaperPlayerJoinListener implements Listener {
     private final Logger logger;
     private final ProfileCache profileCache;
     private final PaperUserManager userManager;
+    private final ChannelMembership channelMembership;
+    private final PingHandler pingHandler;
 
     @Inject
     public PaperPlayerJoinListener(
         final ConfigFactory configFactory,
         final Logger logger,
         final ProfileCache profileCache,
-        final PaperUserManager userManager
+        final PaperUserManager userManager,
+        final ChannelMembership channelMembership,
+        final PingHandler pingHandler
     ) {
         this.configFactory = configFactory;
         this.logger = logger;
         this.profileCache = profileCache;
         this.userManager = userManager;
+        this.channelMembership = channelMembership;
+        this.pingHandler = pingHandler;
     }
 
     @EventHandler(priority = EventPriority.LOWEST)
@@ -63,9 +73,29 @@ public class PaperPlayerJoinListener implements Listener {
         this.profileCache.cache(event.getPlayer().getUniqueId(), event.getPlayer().getName());
     }
 
+    // Monitor, so players denied by other plugins are not loaded
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPreLogin(final AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+            return;
+        }
+
+        loadOnLogin(
+            this.userManager,
+            event.getUniqueId(),
+            this.configFactory.primaryConfig().userCacheSettings().loginLoadTimeout(),
+            this.logger
+        ).join();
+    }
+
     @EventHandler(priority = EventPriority.HIGH)
     public void onJoin(final PlayerJoinEvent event) {
-        this.userManager.user(event.getPlayer().getUniqueId()).exceptionally(joinExceptionHandler(this.logger));
+        this.userManager.user(event.getPlayer().getUniqueId())
+            .thenAccept(player -> {
+                this.channelMembership.joined(player);
+                this.pingHandler.joined(player);
+            })
+            .exceptionally(joinExceptionHandler(this.logger));
 
         final @Nullable List<String> suggestions = this.configFactory.primaryConfig().customChatSuggestions();
 
@@ -78,6 +108,8 @@ public class PaperPlayerJoinListener implements Listener {
 
     @EventHandler(priority = EventPriority.HIGH)
     public void onQuit(final PlayerQuitEvent event) {
+        this.channelMembership.quit(event.getPlayer().getUniqueId());
+        this.pingHandler.quit(event.getPlayer().getUniqueId());
         this.userManager.loggedOut(event.getPlayer().getUniqueId())
             .exceptionally(saveExceptionHandler(this.logger, event.getPlayer().getName(), event.getPlayer().getUniqueId()));
     }
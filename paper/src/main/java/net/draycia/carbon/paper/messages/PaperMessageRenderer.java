@@ -29,11 +29,11 @@ import java.util.function.Supplier;
 import net.draycia.carbon.api.users.CarbonPlayer;
 import net.draycia.carbon.api.util.SourcedAudience;
 import net.draycia.carbon.common.config.ConfigFactory;
+import net.draycia.carbon.common.messages.MessageTemplates;
 import net.draycia.carbon.paper.CarbonChatPaper;
 import net.kyori.adventure.audience.Audience;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.minimessage.MiniMessage;
-import net.kyori.adventure.text.minimessage.tag.Tag;
 import net.kyori.adventure.text.minimessage.tag.resolver.TagResolver;
 import net.kyori.moonshine.message.IMessageRenderer;
 import org.bukkit.Bukkit;
@@ -55,13 +55,13 @@ public class PaperMessageRenderer<T extends Audience> implements IMessageRendere
         return null;
     });
 
-    private final MiniMessage miniMessage;
     private final ConfigFactory configFactory;
+    private final MessageTemplates messageTemplates;
 
     @Inject
-    public PaperMessageRenderer(final ConfigFactory configFactory) {
-        this.miniMessage = MiniMessage.miniMessage();
+    public PaperMessageRenderer(final ConfigFactory configFactory, final MessageTemplates messageTemplates) {
         this.configFactory = configFactory;
+        this.messageTemplates = messageTemplates;
     }
 
     @Override
@@ -72,61 +72,63 @@ public class PaperMessageRenderer<T extends Audience> implements IMessageRendere
         final Method method,
         final Type owner
     ) {
-        final TagResolver.Builder tagResolver = TagResolver.builder();
-
-        for (final var entry : resolvedPlaceholders.entrySet()) {
-            tagResolver.tag(entry.getKey(), Tag.inserting(entry.getValue()));
-        }
-
+        final TagResolver.Builder dynamicTags = TagResolver.builder();
         final String placeholderResolvedMessage = this.configFactory.primaryConfig().applyCustomPlaceholders(intermediateMessage);
 
         if (CarbonChatPaper.miniPlaceholdersLoaded()) {
-            tagResolver.resolver(MiniPlaceholders.getGlobalPlaceholders());
+            dynamicTags.resolver(MiniPlaceholders.getGlobalPlaceholders());
         }
 
         if (!(receiver instanceof SourcedAudience sourced)) {
-            return this.miniMessage.deserialize(placeholderResolvedMessage, tagResolver.build());
+            return this.messageTemplates.deserialize(placeholderResolvedMessage, resolvedPlaceholders, dynamicTags.build());
         }
 
         if (!(sourced.sender() instanceof CarbonPlayer sender && sender.online())) {
-            return this.miniMessage.deserialize(placeholderResolvedMessage, tagResolver.build());
+            return this.messageTemplates.deserialize(placeholderResolvedMessage, resolvedPlaceholders, dynamicTags.build());
         }
 
         final Player senderBukkitPlayer = requireNonNull(Bukkit.getPlayer(sender.uuid()));
 
         if (CarbonChatPaper.miniPlaceholdersLoaded()) {
-            tagResolver.resolver(MiniPlaceholders.getAudiencePlaceholders(senderBukkitPlayer));
+            dynamicTags.resolver(MiniPlaceholders.getAudiencePlaceholders(senderBukkitPlayer));
         }
 
+        // Without any PlaceholderAPI placeholders, parsing is the same as when it's not installed
+        final boolean usePlaceholderAPI = this.hasPlaceholderAPI() && placeholderResolvedMessage.indexOf('%') != -1;
+
         if (!(sourced.recipient() instanceof CarbonPlayer recipient && recipient.online())) {
-            if (this.hasPlaceholderAPI()) {
+            if (usePlaceholderAPI) {
                 return this.placeholderApiProcessor.get().parse(senderBukkitPlayer,
-                    placeholderResolvedMessage, tagResolver.build());
+                    placeholderResolvedMessage, this.allTags(resolvedPlaceholders, dynamicTags));
             }
-            return this.miniMessage.deserialize(placeholderResolvedMessage, tagResolver.build());
+            return this.messageTemplates.deserialize(placeholderResolvedMessage, resolvedPlaceholders, dynamicTags.build());
         }
 
         final @Nullable Player recipientBukkitPlayer = Bukkit.getPlayer(recipient.uuid());
         if (recipientBukkitPlayer == null) {
-            if (this.hasPlaceholderAPI()) {
+            if (usePlaceholderAPI) {
                 return this.placeholderApiProcessor.get().parse(senderBukkitPlayer,
-                    placeholderResolvedMessage, tagResolver.build());
+                    placeholderResolvedMessage, this.allTags(resolvedPlaceholders, dynamicTags));
             }
-            return this.miniMessage.deserialize(placeholderResolvedMessage, tagResolver.build());
+            return this.messageTemplates.deserialize(placeholderResolvedMessage, resolvedPlaceholders, dynamicTags.build());
         }
 
         if (CarbonChatPaper.miniPlaceholdersLoaded()) {
-            tagResolver.resolver(MiniPlaceholders.getRelationalPlaceholders(
+            dynamicTags.resolver(MiniPlaceholders.getRelationalPlaceholders(
                 senderBukkitPlayer,
                 recipientBukkitPlayer
             ));
         }
-        if (this.hasPlaceholderAPI()) {
+        if (usePlaceholderAPI) {
             return this.placeholderApiProcessor.get().parseRelational(senderBukkitPlayer,
-                recipientBukkitPlayer, placeholderResolvedMessage, tagResolver.build());
+                recipientBukkitPlayer, placeholderResolvedMessage, this.allTags(resolvedPlaceholders, dynamicTags));
         }
 
-        return this.miniMessage.deserialize(placeholderResolvedMessage, tagResolver.build());
+        return this.messageTemplates.deserialize(placeholderResolvedMessage, resolvedPlaceholders, dynamicTags.build());
+    }
+
+    private TagResolver allTags(final Map<String, ? extends Component> resolvedPlaceholders, final TagResolver.Builder dynamicTags) {
+        return TagResolver.resolver(MessageTemplates.placeholderTags(resolvedPlaceholders), dynamicTags.build());
     }
 
     private boolean hasPlaceholderAPI() {
@@ -43,6 +43,7 @@ import net.draycia.carbon.velocity.listeners.VelocityChatListener;
 import net.draycia.carbon.velocity.listeners.VelocityListener;
 import net.draycia.carbon.velocity.listeners.VelocityPlayerJoinListener;
 import net.draycia.carbon.velocity.listeners.VelocityPlayerLeaveListener;
+import net.draycia.carbon.velocity.listeners.VelocityPostLoginListener;
 import net.draycia.carbon.velocity.users.CarbonPlayerVelocity;
 import net.kyori.adventure.audience.Audience;
 import net.kyori.adventure.text.Component;
@@ -58,7 +59,8 @@ public class CarbonChatVelocity extends CarbonChatInternal<CarbonPlayerVelocity>
     private static final Set<Class<? extends VelocityListener<?>>> LISTENER_CLASSES = Set.of(
         VelocityChatListener.class,
         VelocityPlayerJoinListener.class,
-        VelocityPlayerLeaveListener.class
+        VelocityPlayerLeaveListener.class,
+        VelocityPostLoginListener.class
     );
 
     private final ProxyServer proxyServer;
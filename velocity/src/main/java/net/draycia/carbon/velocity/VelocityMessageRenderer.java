@@ -27,11 +27,10 @@ import java.lang.reflect.Type;
 import java.util.Map;
 import net.draycia.carbon.api.util.SourcedAudience;
 import net.draycia.carbon.common.config.ConfigFactory;
+import net.draycia.carbon.common.messages.MessageTemplates;
 import net.draycia.carbon.velocity.users.CarbonPlayerVelocity;
 import net.kyori.adventure.audience.Audience;
 import net.kyori.adventure.text.Component;
-import net.kyori.adventure.text.minimessage.MiniMessage;
-import net.kyori.adventure.text.minimessage.tag.Tag;
 import net.kyori.adventure.text.minimessage.tag.resolver.TagResolver;
 import net.kyori.moonshine.message.IMessageRenderer;
 import org.checkerframework.checker.nullness.qual.NonNull;
@@ -42,11 +41,17 @@ public class VelocityMessageRenderer<T extends Audience> implements IMessageRend
 
     private final ConfigFactory configFactory;
     private final PluginManager pluginManager;
+    private final MessageTemplates messageTemplates;
 
     @Inject
-    public VelocityMessageRenderer(final ConfigFactory configFactory, final PluginManager pluginManager) {
+    public VelocityMessageRenderer(
+        final ConfigFactory configFactory,
+        final PluginManager pluginManager,
+        final MessageTemplates messageTemplates
+    ) {
         this.configFactory = configFactory;
         this.pluginManager = pluginManager;
+        this.messageTemplates = messageTemplates;
     }
 
     @Override
@@ -59,10 +64,6 @@ public class VelocityMessageRenderer<T extends Audience> implements IMessageRend
     ) {
         final TagResolver.Builder tagResolver = TagResolver.builder();
 
-        for (final var entry : resolvedPlaceholders.entrySet()) {
-            tagResolver.tag(entry.getKey(), Tag.inserting(entry.getValue()));
-        }
-
         final String placeholderResolvedMessage = this.configFactory.primaryConfig().applyCustomPlaceholders(intermediateMessage);
 
         if (this.pluginManager.isLoaded("miniplaceholders")) {
@@ -78,7 +79,7 @@ public class VelocityMessageRenderer<T extends Audience> implements IMessageRend
             }
         }
 
-        return MiniMessage.miniMessage().deserialize(placeholderResolvedMessage, tagResolver.build());
+        return this.messageTemplates.deserialize(placeholderResolvedMessage, resolvedPlaceholders, tagResolver.build());
     }
 
 }
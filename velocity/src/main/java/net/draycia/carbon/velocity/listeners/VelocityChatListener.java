@@ -38,6 +38,8 @@ import net.draycia.carbon.api.util.KeyedRenderer;
 import net.draycia.carbon.common.config.ConfigFactory;
 import net.draycia.carbon.common.listeners.ChatListenerInternal;
 import net.draycia.carbon.common.messages.CarbonMessages;
+import net.draycia.carbon.common.users.MessageTagPermissions;
+import net.draycia.carbon.common.users.UserLoadMetrics;
 import net.draycia.carbon.velocity.CarbonVelocityBootstrap;
 import net.kyori.adventure.audience.Audience;
 import net.kyori.adventure.text.Component;
@@ -49,6 +51,7 @@ import org.slf4j.Logger;
 public final class VelocityChatListener extends ChatListenerInternal implements VelocityListener<PlayerChatEvent> {
 
     private final UserManager<?> userManager;
+    private final UserLoadMetrics userLoadMetrics;
     private final Logger logger;
     private final AtomicInteger timesWarned = new AtomicInteger(0);
     private final Supplier<Boolean> signedSupplier;
@@ -61,10 +64,13 @@ public final class VelocityChatListener extends ChatListenerInternal implements
         final Logger logger,
         final PluginManager pluginManager,
         final CarbonMessages carbonMessages,
-        final ConfigFactory configFactory
+        final ConfigFactory configFactory,
+        final UserLoadMetrics userLoadMetrics,
+        final MessageTagPermissions messageTagPermissions
     ) {
-        super(carbonChat.eventHandler(), carbonMessages, configFactory);
+        super(carbonChat.eventHandler(), carbonMessages, configFactory, messageTagPermissions);
         this.userManager = userManager;
+        this.userLoadMetrics = userLoadMetrics;
         this.logger = logger;
         this.configFactory = configFactory;
         this.signedSupplier = Suppliers.memoize(
@@ -111,7 +117,7 @@ public final class VelocityChatListener extends ChatListenerInternal implements
 
         event.setResult(PlayerChatEvent.ChatResult.denied());
 
-        final CarbonPlayer sender = this.userManager.user(event.getPlayer().getUniqueId()).join();
+        final CarbonPlayer sender = this.userLoadMetrics.awaitChatSender(this.userManager.user(event.getPlayer().getUniqueId()));
 
         final String content = event.getResult().getMessage().orElse(event.getMessage());
         final CarbonChatEvent chatEvent = this.prepareAndEmitChatEvent(sender, content, null);
@@ -23,26 +23,31 @@ import com.google.inject.Inject;
 import com.velocitypowered.api.event.EventManager;
 import com.velocitypowered.api.event.EventTask;
 import com.velocitypowered.api.event.connection.LoginEvent;
+import net.draycia.carbon.common.config.ConfigFactory;
 import net.draycia.carbon.velocity.CarbonVelocityBootstrap;
 import net.draycia.carbon.velocity.VelocityUserManager;
 import org.apache.logging.log4j.Logger;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.framework.qual.DefaultQualifier;
 
-import static net.draycia.carbon.common.util.PlayerUtils.joinExceptionHandler;
+import static net.draycia.carbon.common.util.PlayerUtils.loadOnLogin;
 
 @DefaultQualifier(NonNull.class)
 public class VelocityPlayerJoinListener implements VelocityListener<LoginEvent> {
 
     private final VelocityUserManager userManager;
+    private final ConfigFactory configFactory;
     private final Logger logger;
 
     @Inject
     public VelocityPlayerJoinListener(
         final VelocityUserManager userManager,
+        final ConfigFactory configFactory,
         final Logger logger
     ) {
         this.userManager = userManager;
+        this.configFactory = configFactory;
         this.logger = logger;
     }
 
@@ -52,10 +57,18 @@ public class VelocityPlayerJoinListener implements VelocityListener<LoginEvent>
     }
 
     @Override
-    public EventTask executeAsync(final LoginEvent event) {
-        return EventTask.async(
-            () -> this.userManager.user(event.getPlayer().getUniqueId()).exceptionally(joinExceptionHandler(this.logger))
-        );
+    public @Nullable EventTask executeAsync(final LoginEvent event) {
+        if (!event.getResult().isAllowed()) {
+            return null;
+        }
+
+        // Hold the login until the player is loaded, so their first chat message does not wait on storage
+        return EventTask.resumeWhenComplete(loadOnLogin(
+            this.userManager,
+            event.getPlayer().getUniqueId(),
+            this.configFactory.primaryConfig().userCacheSettings().loginLoadTimeout(),
+            this.logger
+        ));
     }
 
 }
@@ -23,6 +23,8 @@ import com.google.inject.Inject;
 import com.velocitypowered.api.event.EventManager;
 import com.velocitypowered.api.event.EventTask;
 import com.velocitypowered.api.event.connection.DisconnectEvent;
+import net.draycia.carbon.common.channels.ChannelMembership;
+import net.draycia.carbon.common.listeners.PingHandler;
 import net.draycia.carbon.velocity.CarbonVelocityBootstrap;
 import net.draycia.carbon.velocity.VelocityUserManager;
 import org.apache.logging.log4j.Logger;
@@ -36,14 +38,20 @@ public final class VelocityPlayerLeaveListener implements VelocityListener<Disco
 
     private final VelocityUserManager userManager;
     private final Logger logger;
+    private final ChannelMembership channelMembership;
+    private final PingHandler pingHandler;
 
     @Inject
     public VelocityPlayerLeaveListener(
         final VelocityUserManager userManager,
-        final Logger logger
+        final Logger logger,
+        final ChannelMembership channelMembership,
+        final PingHandler pingHandler
     ) {
         this.userManager = userManager;
         this.logger = logger;
+        this.channelMembership = channelMembership;
+        this.pingHandler = pingHandler;
     }
 
     @Override
@@ -57,6 +65,8 @@ public final class VelocityPlayerLeaveListener implements VelocityListener<Disco
             if (event.getLoginStatus() == DisconnectEvent.LoginStatus.CONFLICTING_LOGIN) {
                 return;
             }
+            this.channelMembership.quit(event.getPlayer().getUniqueId());
+            this.pingHandler.quit(event.getPlayer().getUniqueId());
             this.userManager.loggedOut(event.getPlayer().getUniqueId())
                 .exceptionally(saveExceptionHandler(this.logger, event.getPlayer().getUsername(), event.getPlayer().getUniqueId()));
         });
@@ -0,0 +1,76 @@
+/*
+ * CarbonChat
+ *
+ * Copyright (c) 2023 Josua Parks (Vicarious)
+ *                    Contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.draycia.carbon.velocity.listeners;
+
+import com.google.inject.Inject;
+import com.velocitypowered.api.event.EventManager;
+import com.velocitypowered.api.event.EventTask;
+import com.velocitypowered.api.event.connection.PostLoginEvent;
+import net.draycia.carbon.common.channels.ChannelMembership;
+import net.draycia.carbon.common.listeners.PingHandler;
+import net.draycia.carbon.velocity.CarbonVelocityBootstrap;
+import net.draycia.carbon.velocity.VelocityUserManager;
+import org.apache.logging.log4j.Logger;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.framework.qual.DefaultQualifier;
+
+import static net.draycia.carbon.common.util.PlayerUtils.joinExceptionHandler;
+
+@DefaultQualifier(NonNull.class)
+public final class VelocityPostLoginListener implements VelocityListener<PostLoginEvent> {
+
+    private final VelocityUserManager userManager;
+    private final Logger logger;
+    private final ChannelMembership channelMembership;
+    private final PingHandler pingHandler;
+
+    @Inject
+    public VelocityPostLoginListener(
+        final VelocityUserManager userManager,
+        final Logger logger,
+        final ChannelMembership channelMembership,
+        final PingHandler pingHandler
+    ) {
+        this.userManager = userManager;
+        this.logger = logger;
+        this.channelMembership = channelMembership;
+        this.pingHandler = pingHandler;
+    }
+
+    @Override
+    public void register(final EventManager eventManager, final CarbonVelocityBootstrap bootstrap) {
+        eventManager.register(bootstrap, PostLoginEvent.class, this);
+    }
+
+    @Override
+    public @Nullable EventTask executeAsync(final PostLoginEvent event) {
+        // The player was loaded during login, before they were online. Requesting them again
+        // now that they are online keeps them out of the offline player cache.
+        this.userManager.user(event.getPlayer().getUniqueId())
+            .thenAccept(player -> {
+                this.channelMembership.joined(player);
+                this.pingHandler.joined(player);
+            })
+            .exceptionally(joinExceptionHandler(this.logger));
+        return null;
+    }
+
+}